@@ -0,0 +1,81 @@
+package client;
+
+import javafx.scene.image.Image;
+import misc.ContentHash;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The avatars this client has seen, keyed by the hash of their bytes. Images are kept in memory for the
+ * session and on disk across sessions, so a player who comes back with the same avatar costs no download.
+ */
+public class AvatarCache {
+    public static final int SIZE = 100;
+    private static final Path DIRECTORY = Paths.get(System.getProperty("user.home"), ".baloney-sandwich", "avatars");
+    private final Map<String, Image> images = new ConcurrentHashMap<>();
+    private final Set<String> requested = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param hash The hash of an avatar.
+     * @return The avatar from memory or disk, or null if it has to be asked for.
+     */
+    public Image get(String hash) {
+        if (!ContentHash.isValid(hash)) {
+            return null;
+        }
+        Image image = images.get(hash);
+        if (image == null) {
+            try {
+                byte[] bytes = Files.readAllBytes(DIRECTORY.resolve(hash));
+                // A file that was damaged on disk is treated as missing.
+                if (ContentHash.of(bytes).equals(hash)) {
+                    image = decode(bytes);
+                    images.put(hash, image);
+                }
+            } catch (IOException ignored) {
+                // Not cached on disk yet.
+            }
+        }
+        return image;
+    }
+
+    /**
+     * @param hash The hash of an avatar that is not cached.
+     * @return Whether the avatar should be asked for, which is only the case the first time.
+     */
+    public boolean request(String hash) {
+        return ContentHash.isValid(hash) && requested.add(hash);
+    }
+
+    /**
+     * Keeps an avatar sent by the server, if its bytes match its hash.
+     * @param hash The hash the server sent the avatar under.
+     * @param bytes The avatar.
+     * @return The avatar, or null if the bytes do not match the hash.
+     */
+    public Image put(String hash, byte[] bytes) {
+        if (!ContentHash.isValid(hash) || !ContentHash.of(bytes).equals(hash)) {
+            return null;
+        }
+        Image image = decode(bytes);
+        images.put(hash, image);
+        try {
+            Files.createDirectories(DIRECTORY);
+            Files.write(DIRECTORY.resolve(hash), bytes);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return image;
+    }
+
+    private static Image decode(byte[] bytes) {
+        return new Image(new ByteArrayInputStream(bytes), SIZE, SIZE, false, true);
+    }
+}
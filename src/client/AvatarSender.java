@@ -0,0 +1,62 @@
+package client;
+
+import misc.AvatarUpload;
+import misc.ContentHash;
+
+import java.io.PrintWriter;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Sends an avatar to the server in chunks, as described in {@link AvatarUpload}. Only a few chunks are on their
+ * way at a time, so the messages of the game are never queued behind the whole picture.
+ */
+public class AvatarSender {
+    private final String username;
+    private final byte[] bytes;
+    private final PrintWriter writer;
+    private int sent = 0;
+
+    /**
+     * @param bytes The avatar, at most {@link AvatarUpload#MAX_BYTES} long.
+     */
+    public AvatarSender(String username, byte[] bytes, PrintWriter writer) {
+        this.username = username;
+        this.bytes = bytes;
+        this.writer = writer;
+    }
+
+    /**
+     * Announces the avatar and sends the first chunks.
+     */
+    public synchronized void start() {
+        writer.println(username + "\t" + bytes.length + "\tIMS\t" + ContentHash.of(bytes));
+        for (int i = 0; i < AvatarUpload.WINDOW; i++) {
+            sendChunk();
+        }
+        writer.flush();
+    }
+
+    /**
+     * Sends the next chunk for a chunk the server has received.
+     * @param received The number of bytes the server has received, or -1 if it turned the avatar down.
+     * @return Whether the upload is over.
+     */
+    public synchronized boolean acknowledged(int received) {
+        if (received < 0) {
+            return true;
+        }
+        sendChunk();
+        writer.flush();
+        return received == bytes.length;
+    }
+
+    private void sendChunk() {
+        if (sent < bytes.length) {
+            int length = Math.min(AvatarUpload.CHUNK_SIZE, bytes.length - sent);
+            writer.println(username + "\t" + Base64.getEncoder().encodeToString(Arrays.copyOfRange(bytes, sent,
+                    sent + length)) + "\tIMC");
+            sent += length;
+        }
+    }
+}
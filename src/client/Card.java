@@ -1,39 +1,111 @@
 package client;
 
-import javafx.scene.image.Image;
-
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
 import java.io.Serializable;
+import java.util.Arrays;
 
+/**
+ * A playing card. There is only one instance of each card, which is looked up by its id, so cards can be
+ * compared without building their names.
+ */
 public class Card implements Serializable {
-    public static final Card ACE_OF_SPADES = new Card("As");
-    public static Image CARD_BACK;
+    private static final String SUITS = "cdhs", RANKS = "A23456789TJQK";
+    private static final byte[] RANK_OF = new byte[128], SUIT_OF = new byte[128];
+    private static final Card[] CARDS = new Card[53];
 
     static {
-        try {
-            CARD_BACK = new Image(new FileInputStream("res/CardBack.jpg"));
-        } catch (FileNotFoundException e) {
-            e.printStackTrace();
+        Arrays.fill(RANK_OF, (byte) -1);
+        Arrays.fill(SUIT_OF, (byte) -1);
+        for (int i = 0; i < RANKS.length(); i++) {
+            RANK_OF[RANKS.charAt(i)] = (byte) i;
+        }
+        for (int i = 0; i < SUITS.length(); i++) {
+            SUIT_OF[SUITS.charAt(i)] = (byte) i;
+        }
+        for (int i = 0; i < CARDS.length; i++) {
+            CARDS[i] = new Card(i);
+        }
+    }
+
+    /**
+     * The id of the joker. Every other card has the id {@code (rank - 1) * 4 + (suit - 1)}.
+     */
+    public static final int JOKER_ID = 52;
+    public static final Card JOKER = CARDS[JOKER_ID];
+    public static final Card ACE_OF_SPADES = of("As");
+
+    private final int id, rank, suit;
+    private final String name, shortName;
+
+    private Card(int id) {
+        this.id = id;
+        if (id == JOKER_ID) {
+            rank = 0;
+            suit = 0;
+            shortName = "Jk";
+        } else {
+            rank = id / 4 + 1;
+            suit = id % 4 + 1;
+            shortName = RANKS.charAt(rank - 1) + "" + SUITS.charAt(suit - 1);
         }
+        name = getRankName() + " of " + getSuitName();
     }
 
-    private final String suits = "cdhs", ranks = "A23456789TJQK";
-    private int rank, suit;
     /**
-     * Constructor for the Card class. Note that the string used is not the full name of the card,
-     * but it is the abbreviated form of the card. For example, for a card that states, "Two of Hearts,"
-     * use "2h" in the constructor.
+     * Looks up a card by its abbreviated form. For example, for a card that states, "Two of Hearts,"
+     * use "2h".
      * @param s The short name for the card.
+     * @return The card, or the joker if the name is not a known card.
      */
-    public Card(String s) {
-        rank = ranks.indexOf(s.charAt(0)) + 1;
-        suit = suits.indexOf(s.charAt(1)) + 1;
+    public static Card of(String s) {
+        if (s.length() < 2) {
+            return JOKER;
+        }
+        return of(s.charAt(0), s.charAt(1));
+    }
+
+    /**
+     * Looks up a card by the two characters of its short name, so a card list can be read without cutting
+     * it into strings first.
+     * @param r The rank, such as '2' or 'K'.
+     * @param u The suit, such as 'h'.
+     * @return The card, or the joker if the characters are not a known card.
+     */
+    public static Card of(char r, char u) {
+        if (r >= 128 || u >= 128 || RANK_OF[r] < 0 || SUIT_OF[u] < 0) {
+            return JOKER;
+        }
+        return CARDS[RANK_OF[r] * 4 + SUIT_OF[u]];
     }
 
-    public Card(int rank, int suit) {
-        this.rank = rank;
-        this.suit = suit;
+    /**
+     * @param rank The numerical rank, from 1 (Ace) to 13 (King).
+     * @param suit The numerical suit, from 1 (Clubs) to 4 (Spades).
+     * @return The card, or the joker if there is no such card.
+     */
+    public static Card of(int rank, int suit) {
+        if (rank < 1 || rank > 13 || suit < 1 || suit > 4) {
+            return JOKER;
+        }
+        return CARDS[(rank - 1) * 4 + (suit - 1)];
+    }
+
+    /**
+     * @param id The id of the card, as returned by {@link #getId()}.
+     * @return The card.
+     * @throws IllegalArgumentException If there is no card with that id.
+     */
+    public static Card fromId(int id) {
+        if (id < 0 || id >= CARDS.length) {
+            throw new IllegalArgumentException("Unknown card id: " + id);
+        }
+        return CARDS[id];
+    }
+
+    /**
+     * @return A number from 0 to 52 that identifies the card.
+     */
+    public int getId() {
+        return id;
     }
 
     /**
@@ -82,24 +154,17 @@ public class Card implements Serializable {
      */
     @Override
     public String toString() {
-        return getRankName() + " of " + getSuitName();
+        return name;
     }
 
-    /**
-     *
-     * @return The image of the card if the image can be found in the specified directory.
-     * @throws FileNotFoundException If the image cannot be found.
-     */
-    public Image getImage() throws FileNotFoundException {
-        return new Image(new FileInputStream("res/" + toString() + ".jpg"));
+    @Override
+    public boolean equals(Object obj) {
+        return obj == this || (obj instanceof Card && ((Card) obj).id == id);
     }
 
     @Override
-    public boolean equals(Object obj) {
-        if (obj instanceof Card) {
-            return toString().equals(obj.toString());
-        }
-        return false;
+    public int hashCode() {
+        return id;
     }
 
     /**
@@ -107,6 +172,13 @@ public class Card implements Serializable {
      * @return The short name of the card.
      */
     public String getShortName() {
-        return ranks.charAt(rank - 1) + "" + suits.charAt(suit - 1);
+        return shortName;
+    }
+
+    /**
+     * Keeps a single instance of each card after deserialization.
+     */
+    private Object readResolve() {
+        return CARDS[id];
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,109 @@
+package client;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Packs the pictures the client draws into the sprite atlas {@link CardImages} loads, and the atlas and the
+ * change log into the {@link ResourcePack} of the client. Run it from the project directory whenever a picture
+ * in {@code res/} or the change log changes:
+ * <pre>
+ * java client.CardAtlasBuilder
+ * </pre>
+ * The pictures are placed row by row, and the {@code cards.atlas} resource lists where each one ended up, one
+ * tab-separated line per picture: the short name of the card or {@code back}, x, y, width and height.
+ */
+public class CardAtlasBuilder {
+    private static final int MAX_WIDTH = 1040;
+    private static final float QUALITY = 0.95f;
+
+    public static void main(String[] args) throws IOException {
+        Map<String, BufferedImage> sprites = new LinkedHashMap<>();
+        for (int id = 0; id < Card.JOKER_ID; id++) {
+            Card card = Card.fromId(id);
+            sprites.put(card.getShortName(), read("res/" + card.toString() + ".jpg"));
+        }
+        sprites.put(CardImages.BACK, read("res/CardBack.jpg"));
+
+        List<int[]> places = new ArrayList<>();
+        int x = 0, y = 0, rowHeight = 0, width = 0;
+        for (BufferedImage sprite : sprites.values()) {
+            if (x > 0 && x + sprite.getWidth() > MAX_WIDTH) {
+                x = 0;
+                y += rowHeight;
+                rowHeight = 0;
+            }
+            places.add(new int[] {x, y, sprite.getWidth(), sprite.getHeight()});
+            x += sprite.getWidth();
+            width = Math.max(width, x);
+            rowHeight = Math.max(rowHeight, sprite.getHeight());
+        }
+
+        BufferedImage atlas = new BufferedImage(width, y + rowHeight, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = atlas.createGraphics();
+        StringBuilder index = new StringBuilder();
+        try {
+            int i = 0;
+            for (Map.Entry<String, BufferedImage> sprite : sprites.entrySet()) {
+                int[] place = places.get(i++);
+                graphics.drawImage(sprite.getValue(), place[0], place[1], null);
+                index.append(sprite.getKey()).append('\t').append(place[0]).append('\t').append(place[1]).append('\t')
+                        .append(place[2]).append('\t').append(place[3]).append('\n');
+            }
+        } finally {
+            graphics.dispose();
+        }
+
+        Map<String, byte[]> resources = new LinkedHashMap<>();
+        resources.put(CardImages.ATLAS_INDEX, index.toString().getBytes(StandardCharsets.UTF_8));
+        resources.put(CardImages.ATLAS_IMAGE, encode(atlas));
+        resources.put(ResourcePack.UPDATES, Files.readAllBytes(Paths.get(ResourcePack.UPDATES)));
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream("res/" + ResourcePack.FILE_NAME))) {
+            ResourcePack.write(out, resources);
+        }
+    }
+
+    /**
+     * Writes the atlas as a JPEG of high quality, which is about as large as the pictures it was made of.
+     */
+    private static byte[] encode(BufferedImage atlas) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(QUALITY);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(bytes)) {
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(atlas, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return bytes.toByteArray();
+    }
+
+    private static BufferedImage read(String path) throws IOException {
+        BufferedImage image = ImageIO.read(new File(path));
+        if (image == null) {
+            throw new IOException("Not a picture: " + path);
+        }
+        return image;
+    }
+}
@@ -0,0 +1,107 @@
+package client;
+
+import javafx.geometry.Rectangle2D;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+
+import java.io.IOException;
+
+/**
+ * Draws the pictures of the cards. This is kept apart from {@link Card} so that the server can use cards
+ * without loading JavaFX or any image.
+ * <p>
+ * Every picture lives in one sprite atlas in the {@link ResourcePack}, made by {@link CardAtlasBuilder}, which
+ * is decoded once and shared by every card on the screen. A card is drawn by pointing the viewport of an {@link ImageView} at
+ * its part of the atlas.
+ */
+public class CardImages {
+    static final String ATLAS_IMAGE = "cards.jpg", ATLAS_INDEX = "cards.atlas";
+    /**
+     * The name of the back of a card in the index of the atlas.
+     */
+    static final String BACK = "back";
+
+    /**
+     * @return The atlas, or null if it cannot be found.
+     */
+    public static Image getAtlas() {
+        return Atlas.image;
+    }
+
+    /**
+     * @return The part of the atlas that shows the card, or null if it has no picture.
+     */
+    public static Rectangle2D getViewport(Card card) {
+        return Atlas.viewports[card.getId()];
+    }
+
+    /**
+     * @return The part of the atlas that shows the back of a card.
+     */
+    public static Rectangle2D getCardBackViewport() {
+        return Atlas.back;
+    }
+
+    /**
+     * @return A new view that shows the card.
+     */
+    public static ImageView newView(Card card) {
+        ImageView view = new ImageView();
+        show(view, card);
+        return view;
+    }
+
+    /**
+     * Makes a view show the card.
+     */
+    public static void show(ImageView view, Card card) {
+        view.setImage(Atlas.image);
+        view.setViewport(getViewport(card));
+    }
+
+    /**
+     * Makes a view show the back of a card.
+     */
+    public static void showCardBack(ImageView view) {
+        view.setImage(Atlas.image);
+        view.setViewport(Atlas.back);
+    }
+
+    /**
+     * Decodes the atlas on a background thread, so the first hand is shown without reading from the disk.
+     */
+    public static void preload() {
+        Thread thread = new Thread(CardImages::getAtlas, "Card Atlas Loader");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private static class Atlas {
+        private static final Rectangle2D[] viewports = new Rectangle2D[Card.JOKER_ID + 1];
+        private static Rectangle2D back;
+        private static Image image;
+
+        static {
+            try {
+                ResourcePack pack = ResourcePack.getDefault();
+                String index = pack.getText(ATLAS_INDEX);
+                if (index == null) {
+                    throw new IOException("Missing resource: " + ATLAS_INDEX);
+                }
+                for (String line : index.split("\n")) {
+                    String[] data = line.split("\t");
+                    Rectangle2D viewport = new Rectangle2D(Integer.parseInt(data[1]), Integer.parseInt(data[2]),
+                            Integer.parseInt(data[3]), Integer.parseInt(data[4]));
+                    if (data[0].equals(BACK)) {
+                        back = viewport;
+                    } else {
+                        viewports[Card.of(data[0]).getId()] = viewport;
+                    }
+                }
+                image = new Image(pack.openStream(ATLAS_IMAGE));
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+}
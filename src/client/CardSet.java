@@ -0,0 +1,176 @@
+package client;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * A set of cards from a single deck, stored as one bit per card id in a {@code long}. Membership, adding and
+ * removing whole sets are single bit operations, and nothing is allocated while the set is used.
+ * <p>
+ * A set keeps no order: its cards always come out ordered by id. Piles whose order matters, such as the cards
+ * put down in a turn, are kept in lists.
+ */
+public class CardSet {
+    private static final long RANK_MASK = 0xFL;
+    private long mask;
+
+    public CardSet() {
+    }
+
+    private CardSet(long mask) {
+        this.mask = mask;
+    }
+
+    /**
+     * @param cardList Short names separated by spaces, as they are sent in messages.
+     * @return The cards in the list.
+     */
+    public static CardSet parse(String cardList) {
+        CardSet set = new CardSet();
+        for (int i = 0; i + 1 < cardList.length(); i += 3) {
+            set.add(Card.of(cardList.charAt(i), cardList.charAt(i + 1)));
+        }
+        return set;
+    }
+
+    public static CardSet of(List<Card> cards) {
+        CardSet set = new CardSet();
+        for (Card card : cards) {
+            set.add(card);
+        }
+        return set;
+    }
+
+    /**
+     * @return Whether the card was not in the set yet.
+     */
+    public boolean add(Card card) {
+        long bit = 1L << card.getId();
+        boolean added = (mask & bit) == 0;
+        mask |= bit;
+        return added;
+    }
+
+    public void addAll(CardSet cards) {
+        mask |= cards.mask;
+    }
+
+    /**
+     * @return Whether the card was in the set.
+     */
+    public boolean remove(Card card) {
+        long bit = 1L << card.getId();
+        boolean removed = (mask & bit) != 0;
+        mask &= ~bit;
+        return removed;
+    }
+
+    public void removeAll(CardSet cards) {
+        mask &= ~cards.mask;
+    }
+
+    /**
+     * Removes a card chosen uniformly at random.
+     * @param random The source of randomness.
+     * @return The card that was removed.
+     * @throws IllegalStateException If the set is empty.
+     */
+    public Card removeAny(SplittableRandom random) {
+        if (mask == 0) {
+            throw new IllegalStateException("There are no more cards.");
+        }
+        long remaining = mask;
+        for (int i = random.nextInt(size()); i > 0; i--) {
+            remaining &= remaining - 1;
+        }
+        Card card = Card.fromId(Long.numberOfTrailingZeros(remaining));
+        remove(card);
+        return card;
+    }
+
+    public boolean contains(Card card) {
+        return (mask & (1L << card.getId())) != 0;
+    }
+
+    /**
+     * @param rank The numerical rank, from 1 (Ace) to 13 (King).
+     * @return How many cards of that rank are in the set.
+     */
+    public int countRank(int rank) {
+        return Long.bitCount(mask & (RANK_MASK << ((rank - 1) * 4)));
+    }
+
+    /**
+     * @return Whether every card in the set has the given rank. This is true for an empty set.
+     */
+    public boolean hasOnlyRank(int rank) {
+        return (mask & ~(RANK_MASK << ((rank - 1) * 4))) == 0;
+    }
+
+    /**
+     * @return One bit per card in the set, at the position of its id, for code that walks the cards without
+     * making a list of them.
+     */
+    public long getMask() {
+        return mask;
+    }
+
+    public int size() {
+        return Long.bitCount(mask);
+    }
+
+    public boolean isEmpty() {
+        return mask == 0;
+    }
+
+    public void clear() {
+        mask = 0;
+    }
+
+    public CardSet copy() {
+        return new CardSet(mask);
+    }
+
+    /**
+     * @return The cards, ordered by id.
+     */
+    public List<Card> toList() {
+        List<Card> cards = new ArrayList<>(size());
+        for (long remaining = mask; remaining != 0; remaining &= remaining - 1) {
+            cards.add(Card.fromId(Long.numberOfTrailingZeros(remaining)));
+        }
+        return cards;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof CardSet && ((CardSet) obj).mask == mask;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(mask);
+    }
+
+    /**
+     * @return The short names separated by spaces, ordered by id, as they are sent in messages.
+     */
+    @Override
+    public String toString() {
+        if (mask == 0) {
+            return "";
+        }
+        char[] chars = new char[size() * 3 - 1];
+        int i = 0;
+        for (long remaining = mask; remaining != 0; remaining &= remaining - 1) {
+            String shortName = Card.fromId(Long.numberOfTrailingZeros(remaining)).getShortName();
+            if (i > 0) {
+                chars[i++] = ' ';
+            }
+            chars[i++] = shortName.charAt(0);
+            chars[i++] = shortName.charAt(1);
+        }
+        return new String(chars);
+    }
+}
@@ -15,6 +15,7 @@ import javafx.geometry.Insets;
 import javafx.scene.Group;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
+import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.input.KeyCode;
 import javafx.scene.layout.*;
@@ -27,7 +28,12 @@ import javafx.stage.Modality;
 import javafx.stage.Stage;
 import javafx.util.Duration;
 import misc.AnimationHelper;
+import misc.AvatarUpload;
+import misc.BinaryCodec;
 import misc.ListExtension;
+import misc.Message;
+import misc.MessageReader;
+import misc.MessageWriter;
 import misc.TwoKeyMap;
 
 import java.io.*;
@@ -49,11 +55,13 @@ public class Client extends Application {
     private boolean connected = false;
 
     private Socket socket;
-    private PrintWriter writer;
+    private MessageWriter writer;
+    private final AvatarCache avatars = new AvatarCache();
+    private volatile AvatarSender avatarSender;
     private final TextArea textArea = new TextArea();
     private final TextField textField = new TextField(), textFieldUsername = new TextField(),
-    txtPort = new TextField(), txtHost = new TextField();
-    private BufferedReader reader;
+    txtPort = new TextField(), txtHost = new TextField(), txtRoom = new TextField();
+    private MessageReader reader;
     private Stage stage;
     private ImageView discardPileImage = new ImageView();
     private int turns = 0;
@@ -79,6 +87,7 @@ public class Client extends Application {
 
     @Override
     public void start(Stage stage) {
+        CardImages.preload();
         this.stage = stage;
         this.stage.setTitle("Client Login");
         Button connectButton = new Button("Connect");
@@ -92,6 +101,7 @@ public class Client extends Application {
 
         txtHost.setPromptText("Host Name");
         txtPort.setPromptText("Port Number (1-65535)");
+        txtRoom.setPromptText("Room (optional)");
         textFieldUsername.setPromptText("Username");
         connectButton.setOnAction(e -> connectToServer());
         textFieldUsername.setOnKeyPressed(e -> {
@@ -138,8 +148,8 @@ public class Client extends Application {
 
         changeLogButton.setOnAction(e -> {
             try {
-                List<String> lines = Files.readAllLines(new File("Updates.txt").toPath());
-                for (String line : lines) {
+                String updates = ResourcePack.getDefault().getLatestText(ResourcePack.UPDATES);
+                for (String line : updates != null ? updates.split("\r?\n") : new String[0]) {
                     messageQueue.put(line);
                 }
                 messageQueue.put("");
@@ -176,9 +186,13 @@ public class Client extends Application {
                 String path = selectedFile.getAbsolutePath();
                 if (path.endsWith(".png") || path.endsWith(".jpg")) {
                     try {
-                        byte[] bytes = Files.readAllBytes(new File(path).toPath());
-                        writer.println(username + "\t" + Base64.getEncoder().encodeToString(bytes) + "\tIM");
-                    } catch (IOException ex) {
+                        if (selectedFile.length() > AvatarUpload.MAX_BYTES) {
+                            messageQueue.put("That picture is too large for an avatar.");
+                        } else {
+                            avatarSender = new AvatarSender(username, Files.readAllBytes(selectedFile.toPath()), writer);
+                            avatarSender.start();
+                        }
+                    } catch (IOException | InterruptedException ex) {
                         ex.printStackTrace();
                     }
                 }
@@ -193,14 +207,19 @@ public class Client extends Application {
 
         AnchorPane.setLeftAnchor(txtHost, 10d);
         AnchorPane.setTopAnchor(txtHost, 10d);
-        txtHost.setPrefWidth(270);
+        txtHost.setPrefWidth(175);
         txtHost.setPrefHeight(30);
 
-        AnchorPane.setLeftAnchor(txtPort, 290d);
+        AnchorPane.setLeftAnchor(txtPort, 195d);
         AnchorPane.setTopAnchor(txtPort, 10d);
-        txtPort.setPrefWidth(270);
+        txtPort.setPrefWidth(175);
         txtPort.setPrefHeight(30);
 
+        AnchorPane.setLeftAnchor(txtRoom, 380d);
+        AnchorPane.setTopAnchor(txtRoom, 10d);
+        txtRoom.setPrefWidth(180);
+        txtRoom.setPrefHeight(30);
+
         AnchorPane.setRightAnchor(connectButton, 120d);
         AnchorPane.setTopAnchor(connectButton, 50d);
         connectButton.setPrefWidth(100);
@@ -244,7 +263,7 @@ public class Client extends Application {
         textArea.setPrefWidth(740);
         textArea.setPrefHeight(420);
 
-        AnchorPane pane = new AnchorPane(txtHost, txtPort, textFieldUsername,
+        AnchorPane pane = new AnchorPane(txtHost, txtPort, txtRoom, textFieldUsername,
                 connectButton, setAvatarButton, changeLogButton, disconnectButton, textField, sendButton, scrollPane);
         AnchorPane.setLeftAnchor(scrollPane, 10d);
         AnchorPane.setTopAnchor(scrollPane, 130d);
@@ -264,14 +283,19 @@ public class Client extends Application {
                 if (username.length() >= 20 || !username.matches("^[0-9\\p{L}\\-\\s]+$")) {
                     throw new IllegalArgumentException();
                 }
+                String room = txtRoom.getText().trim();
+                if (room.length() >= 20 || !room.matches("^[0-9\\p{L}\\-\\s]*$")) {
+                    throw new IllegalArgumentException();
+                }
                 int port = Integer.parseInt(txtPort.getText());
                 txtPort.setEditable(false);
                 txtHost.setEditable(false);
+                txtRoom.setEditable(false);
                 try {
                     socket = new Socket(address, port);
-                    reader = new BufferedReader(new InputStreamReader(socket.getInputStream()));
-                    writer = new PrintWriter(socket.getOutputStream());
-                    writer.println(writer.toString() + "\t" + username + "\tID");
+                    reader = new MessageReader(socket.getInputStream());
+                    writer = new MessageWriter(socket.getOutputStream());
+                    writer.println(writer.toString() + "\t" + username + "\tID\t" + room + "\t" + BinaryCodec.VERSION);
                     writer.flush();
                 } catch (IOException ex) {
                     try {
@@ -282,6 +306,7 @@ public class Client extends Application {
                     } finally {
                         txtHost.setEditable(true);
                         txtPort.setEditable(true);
+                        txtRoom.setEditable(true);
                     }
                 }
                 listenThread();
@@ -293,7 +318,7 @@ public class Client extends Application {
                 }
             } catch (IllegalArgumentException ex) {
                 try {
-                    messageQueue.put("Invalid username. Please try again.");
+                    messageQueue.put("Invalid username or room name. Please try again.");
                 } catch (InterruptedException e) {
                     e.printStackTrace();
                 }
@@ -371,63 +396,71 @@ public class Client extends Application {
         @Override
         public void run() {
             List<Card> cardList;
-            String stream;
+            Message message;
             UserInterface ui;
             try {
-                while ((stream = reader.readLine()) != null) {
-                        String[] data = stream.split("\t");
+                while ((message = reader.read()) != null) {
+                        if (message.getOpcode() == null) {
+                            throw new IllegalStateException("Unexpected value: " + message.getCode());
+                        }
 
-                        switch (data[2]) {
+                        switch (message.getOpcode()) {
                             //Message
-                            case "M":
-                                messageQueue.put(data[0] + ": " + data[1]);
+                            case M:
+                                messageQueue.put(message.get(0) + ": " + message.get(1));
                                 break;
                             //Connect
-                            case "C":
-                                addUser(data[0]);
+                            case C:
+                                addUser(message.get(0));
                                 break;
                             //Disconnect
-                            case "D":
-                                removeUser(data[0]);
+                            case D:
+                                removeUser(message.get(0));
                                 break;
                             //Finished
-                            case "F":
-                                if (data[1].equals(username)) {
+                            case F:
+                                if (message.get(1).equals(username)) {
                                     printUsers();
                                 }
                                 users.clear();
                                 break;
                             //Draw Card
-                            case "DC":
-                                if (data[0].equals(username)) {
-                                    cards.add(new Card(data[1]));
+                            case DC:
+                                if (message.get(0).equals(username)) {
+                                    cards.add(Card.of(message.get(1)));
                                 }
                                 break;
-                            case "DCs":
-                                if (data[0].equals(username)) {
-                                    cards.addAll(ListExtension.stringToCardList(data[1]));
+                            case DCs:
+                                if (message.get(0).equals(username)) {
+                                    cards.addAll(message.getCards(1));
                                 }
                                 break;
-                            case "DCD":
-                                if (turns == 0 && !data[0].contains(startPlayer)) {
+                            case DCD:
+                                if (turns == 0 && !message.get(0).contains(startPlayer)) {
                                     turns = 2;
                                     hasSelectedNoBS = false;
                                     requestedCardText.setText("Requested Card: 2");
                                 }
-                                if (data[0].contains(username)) {
-                                    writer.println(username + "\t" + data[1] + "\tDCD");
+                                if (message.get(0).contains(username)) {
+                                    writer.println(username + "\t" + message.get(1) + "\tDCD");
                                     writer.flush();
                                 }
                                 break;
                             //Identification
-                            case "ID":
+                            case ID:
                                 // The writer has a unique hash code, which can be used to
                                 // make sure that the message is sent to the right client.
-                                if (data[1].equals("true") && data[0].equals(writer.toString())) {
+                                if (message.get(1).equals("true") && message.get(0).equals(writer.toString())) {
                                     messageQueue.put("The username is a duplicate. Please try again.");
                                     txtHost.setEditable(true);
                                     txtPort.setEditable(true);
-                                } else if (data[0].equals(writer.toString())) {
+                                    txtRoom.setEditable(true);
+                                } else if (message.get(0).equals(writer.toString())) {
+                                    // The server only answers with the version if it switched to binary.
+                                    if (message.size() > 3 && message.get(3).equals(BinaryCodec.VERSION)) {
+                                        reader.setBinary(true);
+                                        writer.setBinary(true);
+                                    }
                                     username = username.trim();
                                     writer.println(username + "\thas connected.\tC");
                                     writer.flush();
@@ -439,27 +472,24 @@ public class Client extends Application {
                                 }
                                 break;
                             //Ready
-                            case "R":
-                                writer.println(username + "\t" + (52 / Integer.parseInt(data[0])) + "\tDCs");
+                            case R:
+                                writer.println(username + "\t" + (52 / message.getInt(0)) + "\tDCs");
                                 writer.flush();
                                 break;
                             //Go!
-                            case "G":
-                                if (data[0].equals(username)) {
+                            case G:
+                                if (message.get(0).equals(username)) {
+                                    List<Card> dealt = message.getCards(1);
                                     Platform.runLater(() -> {
-                                        cards.addAll(ListExtension.stringToCardList(data[1]));
+                                        cards.addAll(dealt);
 
-                                        try {
-                                            initGame();
-                                        } catch (FileNotFoundException e) {
-                                            e.printStackTrace();
-                                        }
+                                        initGame();
                                     });
                                 }
                                 break;
                                 //Sort Players
-                            case "SP":
-                                List<String> users = new ArrayList<>(ListExtension.stringToStringList(data[1]));
+                            case SP:
+                                List<String> users = new ArrayList<>(ListExtension.stringToStringList(message.get(1)));
                                 startPlayer = users.get(0);
                                 for (int i = 0; i < users.size(); i++) {
                                     List<String> players = new ArrayList<>();
@@ -471,16 +501,16 @@ public class Client extends Application {
                                 }
                                 break;
                                 //Transition
-                            case "T":
-                                turns += Integer.parseInt(data[0]);
+                            case T:
+                                turns += message.getInt(0);
                                 hasSelectedNoBS = false;
-                                requestedCardText.setText("Requested Card: " + new Card(1 + (turns / 2) % 13, 1).getRankName());
+                                requestedCardText.setText("Requested Card: " + Card.of(1 + (turns / 2) % 13, 1).getRankName());
                                 break;
                                 //Turn
-                            case "TURN":
-                                if (data.length > 3) {
-                                    cardList = ListExtension.stringToCardList(data[3]);
-                                    if (data[0].equals(username)) {
+                            case TURN:
+                                if (message.size() > 3) {
+                                    cardList = message.getCards(3);
+                                    if (message.get(0).equals(username)) {
                                         if (turns == 0 && startPlayer != null) {
                                             if (cardList.size() == 1 && cardList.get(0).equals(Card.ACE_OF_SPADES)) {
                                                 cards.remove(Card.ACE_OF_SPADES);
@@ -503,7 +533,7 @@ public class Client extends Application {
                                             if (cardList.size() > 0 && cardList.size() < 5) {
                                                 cards.removeAll(cardList);
                                                 String cardString = ListExtension.cardListToString(cardList);
-                                                writer.println(data[0] + "\t" + cardString + "\tPC\t" + data[1] + "\t" + turns);
+                                                writer.println(message.get(0) + "\t" + cardString + "\tPC\t" + message.get(1) + "\t" + turns);
                                                 selectedCards.clear();
                                                 writer.flush();
                                             } else {
@@ -530,9 +560,9 @@ public class Client extends Application {
                                     }
                                     if (turns == 0 && startPlayer != null && cardList.size() == 1
                                             && cardList.get(0).equals(Card.ACE_OF_SPADES))
-                                        discardPileImage.setImage(Card.ACE_OF_SPADES.getImage());
-                                    else if (cardList.size() > 0 && cardList.size() < 5 && turns != 0) discardPileImage.setImage(Card.CARD_BACK);
-                                } else if (data[0].equals(username)) {
+                                        CardImages.show(discardPileImage, Card.ACE_OF_SPADES);
+                                    else if (cardList.size() > 0 && cardList.size() < 5 && turns != 0) CardImages.showCardBack(discardPileImage);
+                                } else if (message.get(0).equals(username)) {
                                     Platform.runLater(() -> {
                                         Alert alert = new Alert(Alert.AlertType.WARNING);
                                         alert.setHeaderText("Invalid Card(s)");
@@ -545,40 +575,42 @@ public class Client extends Application {
                                 }
                                 break;
                             //Display all interfaces.
-                            case "DAI":
-                                if (data[0].equals(username)) {
-                                    Platform.runLater(() -> initDisplay(Integer.parseInt(data[1])));
+                            case DAI:
+                                if (message.get(0).equals(username)) {
+                                    int players = message.getInt(1);
+                                    Platform.runLater(() -> initDisplay(players));
                                 }
                                 break;
                                 //Baloney Sandwich
-                            case "BS":
-                                displayBS(data[0], data[1], data[3].equals("true"), data[4], ListExtension.stringToCardList(data[5]), ListExtension.stringToCardList(data[6]));
+                            case BS:
+                                displayBS(message.get(0), message.get(1), message.get(3).equals("true"), message.get(4), message.getCards(5), message.getCards(6));
                                 //Server displays Baloney Sandwich message & disables all Baloney Sandwich and Put Cards buttons.
                                 break;
                             //Recognize Death
-                            case "RD":
-                                if (username.equals(data[0])) {
+                            case RD:
+                                if (username.equals(message.get(0))) {
                                     cards.clear();
                                     setDisableTurnButtons(true);
                                 }
                                 break;
                                 //Exit Game
-                            case "E":
+                            case E:
                                 cards.clear();
                                 //Intentional Fallthrough
                                 //Disable Buttons
-                            case "DB":
+                            case DB:
                                 setDisableTurnButtons(true);
                                 break;
                             //Enable Buttons
-                            case "EB":
+                            case EB:
                                 setDisableTurnButtons(false);
                                 break;
                             //Warning Messages
-                            case "NOT-YOUR-TURN":
+                            case NOT_YOUR_TURN:
                                 selectedCards.clear();
+                                boolean mine = message.get(0).equals(username);
                                 Platform.runLater(() -> {
-                                    if (data[0].equals(username)) {
+                                    if (mine) {
                                         Alert alert = new Alert(Alert.AlertType.WARNING);
                                         alert.setHeaderText("Not Your Turn");
                                         alert.setContentText("It is not your turn yet. Please be patient.");
@@ -587,8 +619,8 @@ public class Client extends Application {
                                     }
                                 });
                                 break;
-                            case "INVALID-CARDS":
-                                if (data[0].equals(username)) {
+                            case INVALID_CARDS:
+                                if (message.get(0).equals(username)) {
                                     Alert alert = new Alert(Alert.AlertType.WARNING);
                                     alert.setHeaderText("Invalid Card(s)");
                                     alert.setContentText("You can submit no less than one card and" +
@@ -598,93 +630,124 @@ public class Client extends Application {
                                 }
                                 break;
                                 //Add User Interface
-                            case "ADD":
-                                unsortedMap.put(data[0], Integer.parseInt(data[5]),
-                                        new UserInterface(data[0],
-                                                ListExtension.stringToCardList(data[1]),
-                                                Integer.parseInt(data[3]), Integer.parseInt(data[4]), (data.length > 6) ? data[6] : ""));
+                            case ADD:
+                                String avatar = message.size() > 6 ? message.get(6) : "";
+                                Image avatarImage = avatars.get(avatar);
+                                if (avatarImage == null && avatars.request(avatar)) {
+                                    writer.println(username + "\t" + avatar + "\tGAV");
+                                    writer.flush();
+                                }
+                                unsortedMap.put(message.get(0), message.getInt(5),
+                                        new UserInterface(message.get(0),
+                                                message.getCards(1),
+                                                message.getInt(3), message.getInt(4), avatarImage, avatar));
+                                break;
+                                //Image Acknowledgement, asking for the next chunk of the avatar
+                            case IMA:
+                                AvatarSender sender = avatarSender;
+                                if (sender != null && sender.acknowledged(message.getInt(1))) {
+                                    avatarSender = null;
+                                    if (message.getInt(1) < 0) {
+                                        messageQueue.put("The server turned down your avatar.");
+                                    }
+                                }
+                                break;
+                                //Avatar
+                            case AV:
+                                Image received = avatars.put(message.get(0), Base64.getDecoder().decode(message.get(1)));
+                                String hash = message.get(0);
+                                if (received != null) {
+                                    List<UserInterface> waiting = unsortedMap.getValues();
+                                    Platform.runLater(() -> {
+                                        for (UserInterface userInterface : waiting) {
+                                            if (userInterface.getAvatar().equals(hash)) {
+                                                userInterface.setImage(received);
+                                            }
+                                        }
+                                    });
+                                }
                                 break;
                                 //Remove Card
-                            case "RC":
-                                userInterfaces.getValueFromKey1(data[0]).getCards().remove(new Card(data[1]));
+                            case RC:
+                                userInterfaces.getValueFromKey1(message.get(0)).getCards().remove(Card.of(message.get(1)));
                                 break;
                                 //Remove Cards
-                            case "RCs":
-                                userInterfaces.getValueFromKey1(data[0]).getCards().removeAll(ListExtension.stringToCardList(data[1]));
+                            case RCs:
+                                userInterfaces.getValueFromKey1(message.get(0)).getCards().removeAll(message.getCards(1));
                                 break;
                                 //Discard Pile Modification
-                            case "DPM":
+                            case DPM:
                                 new Timeline(
                                         AnimationHelper.animate(discardPileSize,
-                                                Integer.parseInt(data[0]), 1)).play();
+                                                message.getInt(0), 1)).play();
                                 break;
                                 //Modify Health
-                            case "MH":
-                                if (data.length > 3) {
+                            case MH:
+                                if (message.size() > 3) {
                                     Timeline timeline4 = new Timeline();
                                     timeline4.getKeyFrames().add(
-                                            AnimationHelper.animate(userInterfaces.getValueFromKey1(data[0]).healthProperty(),
-                                                    Integer.parseInt(data[1]), 1)
+                                            AnimationHelper.animate(userInterfaces.getValueFromKey1(message.get(0)).healthProperty(),
+                                                    message.getInt(1), 1)
                                     );
                                     timeline4.play();
-                                    if (username.equals(data[3])) {
-                                        writer.println(data[0] + "\t" + data[1] + "\tRD\t"
-                                                + ListExtension.cardListToString(userInterfaces.getValueFromKey1(data[0]).getCards())
+                                    if (username.equals(message.get(3))) {
+                                        writer.println(message.get(0) + "\t" + message.get(1) + "\tRD\t"
+                                                + ListExtension.cardListToString(userInterfaces.getValueFromKey1(message.get(0)).getCards())
                                                 + "\t" + username + "\t" + turns);
                                         writer.flush();
                                     }
                                 } else {
                                     Timeline timeline4 = new Timeline();
                                     timeline4.getKeyFrames().add(
-                                            AnimationHelper.animate(userInterfaces.getValueFromKey1(data[0]).healthProperty(),
-                                                    Integer.parseInt(data[1]), 1)
+                                            AnimationHelper.animate(userInterfaces.getValueFromKey1(message.get(0)).healthProperty(),
+                                                    message.getInt(1), 1)
                                     );
                                     timeline4.play();
-                                    if (username.equals(data[0])) {
-                                        writer.println(data[0] + "\t" + data[1] + "\tRD\t" + ListExtension.cardListToString(cards.get()) + "\t" + username);
+                                    if (username.equals(message.get(0))) {
+                                        writer.println(message.get(0) + "\t" + message.get(1) + "\tRD\t" + ListExtension.cardListToString(cards.get()) + "\t" + username);
                                         writer.flush();
                                     }
                                 }
                                 break;
                                 //Modify Cards
-                            case "MC":
+                            case MC:
                                 Timeline timeline = new Timeline();
                                 timeline.getKeyFrames().add(
-                                        AnimationHelper.animate(userInterfaces.getValueFromKey1(data[0]).cardsProperty(),
-                                                FXCollections.observableList(ListExtension.stringToCardList(data[1])), 1)
+                                        AnimationHelper.animate(userInterfaces.getValueFromKey1(message.get(0)).cardsProperty(),
+                                                FXCollections.observableList(message.getCards(1)), 1)
                                 );
                                 timeline.play();
                                 break;
                                 //Modify Failure
-                            case "MF":
+                            case MF:
                                 //User, Cards, Defender Cards, Health, Turn Queue
-                                if (username.equals(data[0])) {
-                                    cards.addAll(ListExtension.stringToCardList(data[1]));
-                                    health.set(Integer.parseInt(data[4]));
+                                if (username.equals(message.get(0))) {
+                                    cards.addAll(message.getCards(1));
+                                    health.set(message.getInt(4));
                                 }
-                                recognizeVictory(ListExtension.stringToStringList(data[5]), ListExtension.stringToCardList(data[3]));
+                                recognizeVictory(ListExtension.stringToStringList(message.get(5)), message.getCards(3));
                                 break;
                                 //Recognize Victory
-                            case "RV":
-                                recognizeVictory(ListExtension.stringToStringList(data[0]), ListExtension.stringToCardList(data[1]));
+                            case RV:
+                                recognizeVictory(ListExtension.stringToStringList(message.get(0)), message.getCards(1));
                                 break;
                                 //Recognize Victory from Server
-                            case "RVS":
-                                List<String> players = ListExtension.stringToStringList(data[0]);
+                            case RVS:
+                                List<String> players = ListExtension.stringToStringList(message.get(0));
                                 recognizeVictory(players, userInterfaces.getValueFromKey1(players.get(0)).getCards());
                                 break;
                                 //Modify Successful Baloney Sandwich
-                            case "MS":
-                                if (data[0].equals(username)) {
-                                    cards.addAll(ListExtension.stringToCardList(data[1]));
-                                    health.set(Integer.parseInt(data[3]));
+                            case MS:
+                                if (message.get(0).equals(username)) {
+                                    cards.addAll(message.getCards(1));
+                                    health.set(message.getInt(3));
                                 }
                                 break;
                                 //Clear Cards
-                            case "CC":
+                            case CC:
 
                                 Timeline timeline7 = new Timeline();
-                                ui = userInterfaces.getValueFromKey1(data[0]);
+                                ui = userInterfaces.getValueFromKey1(message.get(0));
                                 timeline7.getKeyFrames().add(
                                         AnimationHelper.animate(ui.cardsProperty(),
                                                 FXCollections.observableArrayList(), 1)
@@ -692,7 +755,7 @@ public class Client extends Application {
                                 timeline7.play();
                                 break;
                             default:
-                                throw new IllegalStateException("Unexpected value: " + data[2]);
+                                throw new IllegalStateException("Unexpected value: " + message.get(2));
                         }
                     }
                 } catch (IOException | InterruptedException e) {
@@ -728,13 +791,10 @@ public class Client extends Application {
              numCardsScanned < selectedCards.size();
              numCardsScanned++, index--) {
             Card c = selectedCards.get(index);
-            try {
-                t.getKeyFrames().add(
-                        new KeyFrame(Duration.seconds(numCardsScanned * 2),
-                                new KeyValue(discardPileImage.imageProperty(), c.getImage())));
-            } catch (FileNotFoundException e) {
-                e.printStackTrace();
-            }
+            t.getKeyFrames().add(
+                    new KeyFrame(Duration.seconds(numCardsScanned * 2),
+                            new KeyValue(discardPileImage.imageProperty(), CardImages.getAtlas()),
+                            new KeyValue(discardPileImage.viewportProperty(), CardImages.getViewport(c))));
 
             if (c.getRank() != 1 + turns / 2 % 13) {
                 numCardsScanned++;
@@ -839,7 +899,7 @@ public class Client extends Application {
         btnDontCallBS.setDisable(disable);
     }
 
-    public void initGame() throws FileNotFoundException {
+    public void initGame() {
         //Text Area, Text Field, and Buttons
         stage.setTitle("Game: " + username);
         ScrollPane pane = new ScrollPane(textArea);
@@ -867,7 +927,7 @@ public class Client extends Application {
 
         cardsDisplay = new HBox(20);
         for (Card card : cards) {
-            ImageCheckbox checkbox = new ImageCheckbox(card.getImage());
+            ImageCheckbox checkbox = new ImageCheckbox(card);
             cardsDisplay.getChildren().add(checkbox.get());
             checkBoxes.add(checkbox);
         }
@@ -901,13 +961,9 @@ public class Client extends Application {
                         cardsDisplay.getChildren().clear();
                         checkBoxes.clear();
                         cards.get().forEach(card -> {
-                            try {
-                                ImageCheckbox checkbox = new ImageCheckbox(card.getImage());
-                                cardsDisplay.getChildren().add(checkbox.get());
-                                checkBoxes.add(checkbox);
-                            } catch (FileNotFoundException ex) {
-                                ex.printStackTrace();
-                            }
+                            ImageCheckbox checkbox = new ImageCheckbox(card);
+                            cardsDisplay.getChildren().add(checkbox.get());
+                            checkBoxes.add(checkbox);
                         });
                         writer.println(username + "\t" + ListExtension.cardListToString(cards.get()) + "\tMC");
                         writer.flush();
@@ -1038,7 +1094,7 @@ public class Client extends Application {
         flow3.setBackground(new Background(new BackgroundFill(Color.WHITE, CornerRadii.EMPTY, Insets.EMPTY)));
         flow3.setBorder(new Border(new BorderStroke(Color.BLACK, BorderStrokeStyle.SOLID, CornerRadii.EMPTY, BorderWidths.DEFAULT)));
 
-        requestedCardText = new Text("Requested Card: " + new Card(1 + (turns / 2) % 13, 1).getRankName());
+        requestedCardText = new Text("Requested Card: " + Card.of(1 + (turns / 2) % 13, 1).getRankName());
         requestedCardText.setFont(Font.font(30));
         TextFlow flow4 = new TextFlow(requestedCardText);
         flow4.setBackground(new Background(new BackgroundFill(Color.WHITE, CornerRadii.EMPTY, Insets.EMPTY)));
@@ -1,40 +1,80 @@
 package client;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
+import java.util.SplittableRandom;
 
+/**
+ * A deck of cards that is drawn from the top. The cards are kept in a fixed array with a cursor, so
+ * drawing never moves the remaining cards.
+ */
 public class Deck {
-    private List<Card> cards = new ArrayList<>();
-    private final String suits = "cdhs";
-    private final String ranks = "A23456789TJQK";
+    private final Card[] cards;
+    private int next = 0;
 
+    /**
+     * Creates a full deck shuffled with a fresh, unseeded generator.
+     */
     public Deck() {
-        for (int i = 0; i < 13; i++) {
-            for (int i1 = 0; i1 < 4; i1++)
-                cards.add(new Card("" + ranks.charAt(i) + suits.charAt(i1)));
+        this(new SplittableRandom());
+    }
+
+    /**
+     * Creates a full deck. Shuffling with a generator made from a known seed always gives the same order,
+     * so a game can be replayed.
+     * @param random The generator to shuffle with.
+     */
+    public Deck(SplittableRandom random) {
+        cards = new Card[52];
+        for (int i = 0; i < cards.length; i++) {
+            cards[i] = Card.fromId(i);
+        }
+        for (int i = cards.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            Card card = cards[i];
+            cards[i] = cards[j];
+            cards[j] = card;
         }
-        Collections.shuffle(cards);
     }
 
+    /**
+     * @param cards The cards in the order they are drawn.
+     */
     public Deck(List<Card> cards) {
-        this.cards = cards;
+        this.cards = cards.toArray(new Card[0]);
     }
 
+    /**
+     * @param numCards The number of cards to draw.
+     * @return The cards, in the order they were drawn.
+     * @throws IndexOutOfBoundsException If the deck has fewer cards. Nothing is drawn in that case.
+     */
     public List<Card> draw(int numCards) {
-        List<Card> cards = new ArrayList<>();
+        if (numCards > remaining()) {
+            throw new IndexOutOfBoundsException("Cannot draw " + numCards + " cards from " + remaining() + ".");
+        }
+        List<Card> cards = new ArrayList<>(numCards);
         for (int i = 0; i < numCards; i++) {
             cards.add(draw());
         }
         return cards;
     }
 
+    /**
+     * @throws IndexOutOfBoundsException If the deck is empty.
+     */
     public Card draw() {
-        return cards.remove(0);
+        if (next >= cards.length) {
+            throw new IndexOutOfBoundsException("The deck is empty.");
+        }
+        return cards[next++];
     }
 
+    public int remaining() {
+        return cards.length - next;
+    }
 
     public boolean hasCards() {
-        return cards.size() > 0;
+        return next < cards.length;
     }
 }
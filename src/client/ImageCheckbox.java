@@ -2,16 +2,14 @@ package client;
 
 import javafx.geometry.Pos;
 import javafx.scene.control.CheckBox;
-import javafx.scene.image.Image;
-import javafx.scene.image.ImageView;
 import javafx.scene.layout.VBox;
 
 public class ImageCheckbox {
-    private Image image;
+    private Card card;
     private CheckBox box = new CheckBox();
 
-    public ImageCheckbox(Image image) {
-        this.image = image;
+    public ImageCheckbox(Card card) {
+        this.card = card;
         box.setLayoutX(20);
     }
 
@@ -20,7 +18,7 @@ public class ImageCheckbox {
     }
 
     public VBox get() {
-        VBox vBox = new VBox(new ImageView(image), box);
+        VBox vBox = new VBox(CardImages.newView(card), box);
         vBox.setAlignment(Pos.CENTER);
         return vBox;
     }
@@ -0,0 +1,214 @@
+package client;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.CodeSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Many resources in one file, which is mapped into memory once and handed out in slices, so loading the client
+ * opens a single file however many resources it needs. Packs are written by {@link CardAtlasBuilder}.
+ * <pre>
+ * pack  = "BSPK" int(count) entry* data
+ * entry = short(length of name) utf-8 name int(offset from the start of the file) int(length)
+ * </pre>
+ */
+public class ResourcePack {
+    public static final String FILE_NAME = "resources.pack";
+    /**
+     * Points to the directory of the pack if the client is started from somewhere else.
+     */
+    public static final String DIRECTORY_PROPERTY = "baloney.resources";
+    public static final String UPDATES = "Updates.txt";
+    private static final int MAGIC = 0x4253504B;
+    private static ResourcePack defaultPack;
+    private final Path path;
+    private final ByteBuffer buffer;
+    private final Map<String, int[]> entries = new HashMap<>();
+
+    private ResourcePack(Path path, ByteBuffer buffer) throws IOException {
+        this.path = path;
+        this.buffer = buffer;
+        ByteBuffer header = buffer.duplicate();
+        try {
+            if (header.getInt() != MAGIC) {
+                throw new IOException("Not a resource pack.");
+            }
+            for (int count = header.getInt(); count > 0; count--) {
+                byte[] name = new byte[header.getShort()];
+                header.get(name);
+                int offset = header.getInt(), length = header.getInt();
+                if (offset < 0 || length < 0 || offset > buffer.capacity() - length) {
+                    throw new IOException("Resource pack is damaged.");
+                }
+                entries.put(new String(name, StandardCharsets.UTF_8), new int[] {offset, length});
+            }
+        } catch (RuntimeException e) {
+            throw new IOException("Resource pack is damaged.", e);
+        }
+    }
+
+    /**
+     * Maps the pack of the client the first time it is asked for. The pack is looked for in the directory named
+     * by {@link #DIRECTORY_PROPERTY}, then in {@code res/} of the working directory and then in {@code res/}
+     * next to the classes of the client or one of their parent directories.
+     * @return The pack.
+     * @throws IOException If the pack cannot be found or read.
+     */
+    public static synchronized ResourcePack getDefault() throws IOException {
+        if (defaultPack == null) {
+            defaultPack = open(locate());
+        }
+        return defaultPack;
+    }
+
+    /**
+     * @param path The pack.
+     * @return The pack, mapped into memory.
+     * @throws IOException If the pack cannot be read.
+     */
+    public static ResourcePack open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new ResourcePack(path, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    private static Path locate() {
+        String directory = System.getProperty(DIRECTORY_PROPERTY);
+        if (directory != null) {
+            return Paths.get(directory, FILE_NAME);
+        }
+        Path local = Paths.get("res", FILE_NAME);
+        if (Files.isRegularFile(local)) {
+            return local;
+        }
+        CodeSource source = ResourcePack.class.getProtectionDomain().getCodeSource();
+        try {
+            Path code = source != null ? Paths.get(source.getLocation().toURI()) : null;
+            for (Path parent = code != null ? code.getParent() : null; parent != null; parent = parent.getParent()) {
+                Path candidate = parent.resolve("res").resolve(FILE_NAME);
+                if (Files.isRegularFile(candidate)) {
+                    return candidate;
+                }
+            }
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            // The classes are not in a file, so only the working directory is left.
+        }
+        return local;
+    }
+
+    /**
+     * @param name The name of the resource.
+     * @return A read-only slice of the pack that holds the resource, or null if there is no such resource.
+     */
+    public ByteBuffer get(String name) {
+        int[] entry = entries.get(name);
+        if (entry == null) {
+            return null;
+        }
+        ByteBuffer slice = buffer.duplicate();
+        slice.position(entry[0]).limit(entry[0] + entry[1]);
+        return slice.slice();
+    }
+
+    /**
+     * @param name The name of the resource.
+     * @return A stream over the resource, for decoders that only read streams.
+     * @throws IOException If there is no such resource.
+     */
+    public InputStream openStream(String name) throws IOException {
+        ByteBuffer slice = get(name);
+        if (slice == null) {
+            throw new IOException("Missing resource: " + name);
+        }
+        return new InputStream() {
+            @Override
+            public int read() {
+                return slice.hasRemaining() ? slice.get() & 0xFF : -1;
+            }
+
+            @Override
+            public int read(byte[] bytes, int offset, int length) {
+                if (!slice.hasRemaining()) {
+                    return length == 0 ? 0 : -1;
+                }
+                length = Math.min(length, slice.remaining());
+                slice.get(bytes, offset, length);
+                return length;
+            }
+
+            @Override
+            public int available() {
+                return slice.remaining();
+            }
+        };
+    }
+
+    /**
+     * @param name The name of a resource that is text.
+     * @return The text, or null if there is no such resource.
+     */
+    public String getText(String name) {
+        ByteBuffer slice = get(name);
+        return slice != null ? StandardCharsets.UTF_8.decode(slice).toString() : null;
+    }
+
+    /**
+     * Reads a resource that is text like {@link #getText}, unless the file it was packed from is newer than the
+     * pack. That file was edited after the pack was last built, so it is read instead. {@link CardAtlasBuilder}
+     * packs these files from the directory above {@code res/}, which is where they are looked for.
+     * @param name The name of a resource that is text, which is also the name of the file it was packed from.
+     * @return The text, or null if there is no such resource.
+     */
+    public String getLatestText(String name) {
+        Path source = path.toAbsolutePath().getParent().resolveSibling(name);
+        try {
+            if (Files.isRegularFile(source)
+                    && Files.getLastModifiedTime(source).compareTo(Files.getLastModifiedTime(path)) > 0) {
+                return new String(Files.readAllBytes(source), StandardCharsets.UTF_8);
+            }
+        } catch (IOException e) {
+            // The copy in the pack is still there.
+        }
+        return getText(name);
+    }
+
+    /**
+     * Writes a pack.
+     * @param resources The resources, by name.
+     */
+    public static void write(OutputStream out, Map<String, byte[]> resources) throws IOException {
+        byte[][] names = new byte[resources.size()][];
+        int offset = 8, i = 0;
+        for (String name : resources.keySet()) {
+            names[i] = name.getBytes(StandardCharsets.UTF_8);
+            offset += 2 + names[i++].length + 8;
+        }
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeInt(resources.size());
+        i = 0;
+        for (byte[] resource : resources.values()) {
+            data.writeShort(names[i].length);
+            data.write(names[i++]);
+            data.writeInt(offset);
+            data.writeInt(resource.length);
+            offset += resource.length;
+        }
+        for (byte[] resource : resources.values()) {
+            data.write(resource);
+        }
+        data.flush();
+    }
+}
@@ -14,8 +14,6 @@ import javafx.scene.paint.ImagePattern;
 import javafx.scene.shape.Rectangle;
 import javafx.scene.text.Text;
 
-import java.io.ByteArrayInputStream;
-import java.util.Base64;
 import java.util.List;
 
 public class UserInterface extends VBox {
@@ -25,21 +23,24 @@ public class UserInterface extends VBox {
     private SimpleIntegerProperty health = new SimpleIntegerProperty(0);
     private SimpleListProperty<Card> cardList = new SimpleListProperty<>(FXCollections.observableArrayList());
     private String username;
+    private final String avatar;
+    private final Rectangle rectangle = new Rectangle(100, 100);
     private Image image = null;
 
-    public UserInterface(String username, List<Card> cardList, int health, int maxHealth, String image) {
+    /**
+     * @param image The avatar of the user, or null if it is not known yet.
+     * @param avatar The hash of the avatar, or an empty string if the user has none.
+     */
+    public UserInterface(String username, List<Card> cardList, int health, int maxHealth, Image image, String avatar) {
         this.maxHealth.set(maxHealth);
         this.health.set(health);
         this.username = username;
+        this.avatar = avatar;
         setAlignment(Pos.CENTER);
         Text txtUser = new Text(username);
-        Rectangle rectangle = new Rectangle(100, 100);
         rectangle.setStroke(Color.BLACK);
-        if (!image.equals("null") && !image.isEmpty()) {
-            this.image = new Image(new ByteArrayInputStream(Base64.getDecoder().decode(image)), 100, 100, false, true);
-            rectangle.setFill(new ImagePattern(this.image, 0, 0, 1, 1, true));
-            rectangle.setWidth(this.image.getWidth());
-            rectangle.setHeight(this.image.getHeight());
+        if (image != null) {
+            setImage(image);
         }
         Text txtCardsLeft = new Text();
         txtHealth = new Text("Health: " + health);
@@ -107,4 +108,21 @@ public class UserInterface extends VBox {
     public Image getImage() {
         return image;
     }
+
+    /**
+     * Shows the avatar once it has arrived. Must be called on the JavaFX thread if the interface is shown.
+     */
+    public void setImage(Image image) {
+        this.image = image;
+        rectangle.setFill(new ImagePattern(image, 0, 0, 1, 1, true));
+        rectangle.setWidth(image.getWidth());
+        rectangle.setHeight(image.getHeight());
+    }
+
+    /**
+     * @return The hash of the avatar, or an empty string if the user has none.
+     */
+    public String getAvatar() {
+        return avatar;
+    }
 }
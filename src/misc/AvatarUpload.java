@@ -0,0 +1,78 @@
+package misc;
+
+import java.io.ByteArrayOutputStream;
+import java.security.MessageDigest;
+
+/**
+ * An avatar on its way to the server, sent in chunks so that no single message is large and the game messages
+ * of the uploader are never stuck behind a picture.
+ * <pre>
+ * client: user  size  IMS  hash     announces an upload of size bytes whose content hash is hash
+ * client: user  chunk IMC           the next at most {@link #CHUNK_SIZE} bytes, in base64
+ * server: user  received  IMA       acknowledges a chunk; -1 means the upload was turned down
+ * </pre>
+ * A client has at most {@link #WINDOW} chunks on their way and sends the next one for each acknowledgement.
+ * The server hashes the chunks as they arrive and only accepts the avatar if it matches the announced hash.
+ */
+public class AvatarUpload {
+    public static final int MAX_BYTES = 4 * 1024 * 1024;
+    /**
+     * The largest chunk, which is 16 KiB once it is written in base64.
+     */
+    public static final int CHUNK_SIZE = 12 * 1024;
+    public static final int WINDOW = 4;
+    private final int size;
+    private final String hash;
+    private final ByteArrayOutputStream bytes;
+    private final MessageDigest digest = ContentHash.digest();
+
+    /**
+     * @param size The announced number of bytes.
+     * @param hash The announced content hash.
+     * @throws IllegalArgumentException If the avatar is too large or the hash is not a hash.
+     */
+    public AvatarUpload(int size, String hash) {
+        if (size <= 0 || size > MAX_BYTES) {
+            throw new IllegalArgumentException("Avatar must have between 1 and " + MAX_BYTES + " bytes");
+        }
+        if (!ContentHash.isValid(hash)) {
+            throw new IllegalArgumentException("Avatar has no valid hash");
+        }
+        this.size = size;
+        this.hash = hash;
+        // The buffer grows with what actually arrives rather than with what was announced.
+        bytes = new ByteArrayOutputStream(Math.min(size, CHUNK_SIZE * WINDOW));
+    }
+
+    /**
+     * @param chunk The next chunk.
+     * @return Whether the whole avatar has arrived.
+     * @throws IllegalArgumentException If the chunk is too large or goes past the announced size.
+     */
+    public boolean append(byte[] chunk) {
+        if (chunk.length > CHUNK_SIZE || bytes.size() + chunk.length > size) {
+            throw new IllegalArgumentException("Avatar chunk is too large");
+        }
+        bytes.write(chunk, 0, chunk.length);
+        digest.update(chunk);
+        return bytes.size() == size;
+    }
+
+    /**
+     * @return The number of bytes that have arrived.
+     */
+    public int getReceived() {
+        return bytes.size();
+    }
+
+    /**
+     * @return The avatar, once every chunk has arrived.
+     * @throws IllegalArgumentException If the avatar does not match the announced hash.
+     */
+    public byte[] finish() {
+        if (!ContentHash.of(digest).equals(hash)) {
+            throw new IllegalArgumentException("Avatar does not match its hash");
+        }
+        return bytes.toByteArray();
+    }
+}
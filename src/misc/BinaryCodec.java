@@ -0,0 +1,261 @@
+package misc;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The binary protocol. Both sides switch to it after the {@code ID} handshake if they both offer
+ * {@link #VERSION}; older clients keep using tab-separated lines.
+ * <pre>
+ * frame   = varint(length of payload) payload
+ * payload = opcode(1 byte) varint(number of fields) field*
+ * field   = 0 varint(length) utf-8 bytes   a string
+ *         | 1 zigzag varint                 a number
+ *         | 2 varint(count) card*           a space-separated list of cards, one byte per card
+ *         | 3                               an empty string
+ * </pre>
+ * The fields are the text fields without the opcode, so a frame decodes to exactly the fields the text
+ * line would have been split into.
+ */
+public class BinaryCodec {
+    public static final String VERSION = "BIN1";
+    private static final int STRING = 0, NUMBER = 1, CARDS = 2, EMPTY = 3;
+    private static final String RANKS = "A23456789TJQK", SUITS = "cdhs";
+
+    /**
+     * @param data The fields of a message, with the opcode at index 2.
+     * @return The whole frame, including its length.
+     * @throws IllegalArgumentException If the message has no known opcode.
+     */
+    public static byte[] encode(String[] data) {
+        ByteArrayOutputStream line = new ByteArrayOutputStream(64);
+        int[] starts = new int[data.length];
+        for (int i = 0; i < data.length; i++) {
+            if (i > 0) {
+                line.write('\t');
+            }
+            starts[i] = line.size();
+            byte[] bytes = data[i].getBytes(StandardCharsets.UTF_8);
+            line.write(bytes, 0, bytes.length);
+        }
+        return encode(line.toByteArray(), starts, line.size(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Encodes a line of the text protocol straight from its bytes, without making a string of any field.
+     * @param line The tab-separated fields of a message, with the opcode at index 2.
+     * @param starts Where each field starts. A field ends at the tab before the next one, the last at the length.
+     * @param length The length of the text in the line.
+     * @param charset The charset the line is written in.
+     * @return The whole frame, including its length.
+     * @throws IllegalArgumentException If the message has no known opcode.
+     */
+    public static byte[] encode(byte[] line, int[] starts, int length, Charset charset) {
+        Opcode opcode = starts.length > 2 ? Opcode.of(line, starts[2], end(starts, 2, length) - starts[2]) : null;
+        if (opcode == null) {
+            throw new IllegalArgumentException("Cannot encode message without a known opcode.");
+        }
+        ByteArrayOutputStream payload = new ByteArrayOutputStream(64);
+        payload.write(opcode.ordinal());
+        writeVarint(payload, starts.length - 1);
+        for (int i = 0; i < starts.length; i++) {
+            if (i != 2) {
+                writeField(payload, line, starts[i], end(starts, i, length), charset);
+            }
+        }
+        ByteArrayOutputStream frame = new ByteArrayOutputStream(payload.size() + 5);
+        writeVarint(frame, payload.size());
+        frame.write(payload.toByteArray(), 0, payload.size());
+        return frame.toByteArray();
+    }
+
+    private static int end(int[] starts, int field, int length) {
+        return field + 1 < starts.length ? starts[field + 1] - 1 : length;
+    }
+
+    /**
+     * Decodes the next frame if the buffer holds all of it. The position is only moved past the frame if
+     * it was complete.
+     * @param buffer The bytes read so far, ready to be read from.
+     * @return The message, or null if the frame is not complete yet.
+     * @throws IllegalArgumentException If the frame is malformed.
+     */
+    public static Message decode(ByteBuffer buffer) {
+        int start = buffer.position();
+        long length = readVarint(buffer);
+        if (length > MessageDecoder.MAX_MESSAGE_LENGTH) {
+            throw new IllegalArgumentException("Frame is longer than " + MessageDecoder.MAX_MESSAGE_LENGTH + " bytes.");
+        }
+        if (length < 0 || buffer.remaining() < length) {
+            buffer.position(start);
+            return null;
+        }
+        int limit = buffer.limit();
+        buffer.limit(buffer.position() + (int) length);
+        try {
+            Opcode opcode = Opcode.of(buffer.get());
+            if (opcode == null) {
+                throw new IllegalArgumentException("Unknown opcode in frame.");
+            }
+            int count = readLength(buffer);
+            if (count < 2 || count > length) {
+                throw new IllegalArgumentException("Frame has a wrong number of fields.");
+            }
+            String[] data = new String[count + 1];
+            for (int i = 0; i < data.length; i++) {
+                data[i] = i == 2 ? opcode.getCode() : readField(buffer);
+            }
+            if (buffer.hasRemaining()) {
+                throw new IllegalArgumentException("Frame is longer than its fields.");
+            }
+            return new Message(opcode, data);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Frame is shorter than its fields.");
+        } finally {
+            buffer.limit(limit);
+        }
+    }
+
+    private static void writeField(ByteArrayOutputStream out, byte[] line, int start, int end, Charset charset) {
+        if (start == end) {
+            out.write(EMPTY);
+        } else if (isNumber(line, start, end)) {
+            out.write(NUMBER);
+            int value = parseNumber(line, start, end);
+            writeVarint(out, (value << 1) ^ (value >> 31));
+        } else if (isCardList(line, start, end)) {
+            out.write(CARDS);
+            writeVarint(out, (end - start + 1) / 3);
+            for (int i = start; i < end; i += 3) {
+                out.write(RANKS.indexOf(line[i]) * 4 + SUITS.indexOf(line[i + 1]));
+            }
+        } else {
+            byte[] bytes = line;
+            int offset = start, length = end - start;
+            if (!charset.equals(StandardCharsets.UTF_8)) {
+                bytes = new String(line, start, end - start, charset).getBytes(StandardCharsets.UTF_8);
+                offset = 0;
+                length = bytes.length;
+            }
+            out.write(STRING);
+            writeVarint(out, length);
+            out.write(bytes, offset, length);
+        }
+    }
+
+    private static String readField(ByteBuffer buffer) {
+        int type = buffer.get();
+        switch (type) {
+            case EMPTY:
+                return "";
+            case NUMBER:
+                long zigzag = readLength(buffer);
+                return Integer.toString((int) (zigzag >>> 1) ^ -(int) (zigzag & 1));
+            case CARDS:
+                int count = readLength(buffer);
+                if (count > buffer.remaining()) {
+                    throw new IllegalArgumentException("Card list is longer than its frame.");
+                }
+                char[] chars = new char[Math.max(0, count * 3 - 1)];
+                for (int i = 0; i < count; i++) {
+                    int card = buffer.get();
+                    if (card < 0 || card >= 52) {
+                        throw new IllegalArgumentException("Unknown card in frame.");
+                    }
+                    chars[i * 3] = RANKS.charAt(card / 4);
+                    chars[i * 3 + 1] = SUITS.charAt(card % 4);
+                    if (i < count - 1) {
+                        chars[i * 3 + 2] = ' ';
+                    }
+                }
+                return new String(chars);
+            case STRING:
+                int length = readLength(buffer);
+                if (length > buffer.remaining()) {
+                    throw new IllegalArgumentException("String is longer than its frame.");
+                }
+                String string = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length,
+                        StandardCharsets.UTF_8);
+                buffer.position(buffer.position() + length);
+                return string;
+        }
+        throw new IllegalArgumentException("Unknown field type in frame.");
+    }
+
+    /**
+     * Numbers are only sent as numbers if they turn back into the same text, so "007" or "+1" stay strings.
+     */
+    private static boolean isNumber(byte[] line, int start, int end) {
+        int first = line[start] == '-' ? start + 1 : start;
+        int digits = end - first;
+        if (digits < 1 || digits > 9 || (line[first] == '0' && (digits > 1 || first > start))) {
+            return false;
+        }
+        for (int i = first; i < end; i++) {
+            if (line[i] < '0' || line[i] > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int parseNumber(byte[] line, int start, int end) {
+        int value = 0;
+        for (int i = line[start] == '-' ? start + 1 : start; i < end; i++) {
+            value = value * 10 + line[i] - '0';
+        }
+        return line[start] == '-' ? -value : value;
+    }
+
+    private static boolean isCardList(byte[] line, int start, int end) {
+        if ((end - start + 1) % 3 != 0) {
+            return false;
+        }
+        for (int i = start; i < end; i += 3) {
+            if (RANKS.indexOf(line[i]) < 0 || SUITS.indexOf(line[i + 1]) < 0 || (i + 2 < end && line[i + 2] != ' ')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    /**
+     * Reads a varint inside a frame, where running out of bytes means the frame is malformed.
+     */
+    private static int readLength(ByteBuffer buffer) {
+        long value = readVarint(buffer);
+        if (value < 0 || value > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Frame is shorter than its fields.");
+        }
+        return (int) value;
+    }
+
+    /**
+     * @return The value, or -1 if the buffer ends before the varint does.
+     */
+    private static long readVarint(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Varint is too long.");
+    }
+}
@@ -0,0 +1,236 @@
+package misc;
+
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.ZoneId;
+import java.util.SplittableRandom;
+
+/**
+ * The comments of the game host: Baloney Sandwich verdicts, deaths and quits. Every template is parsed once
+ * into its text and argument slots, so picking and filling a comment only builds the final string.
+ * <p>
+ * Templates name their slots, such as {@code {attacker}}, so the order of the arguments never depends on the
+ * template that was picked.
+ */
+public final class Commentary {
+    private static final String[] CALL = {"attacker", "defender"};
+    private static final String[] PLAYER = {"player"};
+
+    private static final Template[] FAILURE = parse(CALL,
+            "Would you like a cupcake, {attacker}?",
+            "{attacker}, you should try my sister game, Electric Field Hockey.",
+            "If you can't convince them, confuse them, {attacker}.",
+            "Is it true that your trousers are literally on fire, {attacker}?",
+            "I thought you were great at this game, {attacker}.",
+            "Might as well not call Baloney Sandwich this time, {attacker}.",
+            "Don't feel bad, {attacker}. It's only a game...",
+            "{attacker}, don't give up. It's never too late to make a comeback.",
+            "On the bright side, I brought you a teddy bear, {attacker}.",
+            "Every action has an equal and opposite reaction, {attacker}.",
+            "{attacker}, I suggest you have a pizza party to compensate for your loss.",
+            "{attacker}, you can hug me when you feel stressed.",
+            "{attacker}, sometimes you have to lose the battle to win the war.",
+            "Is that your final answer, {attacker}?",
+            "Please don't call Baloney Sandwich again, {attacker}.",
+            "May I present to you the Darwin Award, {attacker}?",
+            "May I present to you the dumbest decision made, {attacker}?",
+            "I have a bad feeling about this, {attacker}.",
+            "{attacker}, you got some splaining to do!",
+            "Aww, {attacker}... Don't cry, we all make mistakes.",
+            "Aww, {attacker}... Don't cry... you're making me cry. :(",
+            "You've yeed your last haw, {attacker}!",
+            "Aww, {attacker}... now I feel bad for you. :(",
+            "Did you plan to call Baloney Sandwich on yourself, {attacker}? Because it's working...",
+            "Did you really just yeet yourself, {attacker}?",
+            "Well yes, but actually no, {attacker}.",
+            "Well, at least you tried, {attacker}...",
+            "When pigs fly, {attacker}, you will successfully call Baloney Sandwich.",
+            "Hush, little {attacker}, don't you cry...",
+            "It's OK, {attacker}, we all make mistakes.",
+            "Here's your reward for calling too many Baloney Sandwiches, {attacker}.",
+            "Better luck next time, {attacker}...",
+            "You're over-thinking it, {attacker}.",
+            "You might want to think twice before calling Baloney Sandwich too often, {attacker}.",
+            "If Plan A fails, {attacker}, remember that you have 25 more letters.",
+            "Poor {attacker}... at least I have a pretty special gift for you!",
+            "{attacker}... now I feel sad for you... :(",
+            "Really, {attacker}? I thought you're more than this...",
+            "Yay, you did it, {attacker}! Oh wait, nevermind...",
+            "What if I told you, {attacker}, you're wrong?",
+            "Oh, {attacker}, you thought you can get away with that?");
+    /**
+     * Replaces the failure comment at {@link #APRIL_FOOLS_INDEX} on the first of April.
+     */
+    private static final Template APRIL_FOOLS = parse(CALL, "Yay, you did it, {attacker}! Oh wait, April Fools!")[0];
+    private static final int APRIL_FOOLS_INDEX = 38;
+
+    private static final Template[] SUCCESS = parse(CALL,
+            "{defender} has to draw the cards because of {attacker}.",
+            "{defender} fell victim to {attacker}.",
+            "{defender}, how dare you lie to {attacker}!",
+            "Resistance is futile, {defender}, thanks to {attacker}.",
+            "Look at what you've done to {defender}, {attacker}!",
+            "What on Earth did you do to {defender}, {attacker}?",
+            "Here's your reward for calling Baloney Sandwich on {defender}, {attacker}.",
+            "{defender}, I suggest you take a break from dealing with {attacker}.",
+            "{defender}, I suggest you have a party to compensate for {attacker}.",
+            "Poor {defender}, I think you should stay away from {attacker}.",
+            "{defender}, did you just get caught red-handed by {attacker}?",
+            "{defender}, did you think you could get away with hiding your cards from {attacker}?",
+            "{defender}, this is what the Baloney Sandwich Master {attacker} is doing.",
+            "Thank you, {attacker}! You just made {defender} draw the cards.",
+            "You might need to upgrade your insurance against {attacker}, {defender}.",
+            "I think {attacker} has a very special gift for you, {defender}...",
+            "I blame {attacker} for making {defender} draw the cards!",
+            "{attacker}, how dare you make {defender} draw the cards!",
+            "You're about to get yeeted by {attacker}, {defender}!",
+            "It's so hard trying to keep up with the calls of {attacker}, {defender}",
+            "Go, {attacker}, you can defeat {defender}!",
+            "Congratulations, {attacker}, you did the right maneuver on {defender}!",
+            "Keep it up, {attacker}, show {defender} the right way to do it!",
+            "Good job, {attacker}, you showed {defender} the true meaning of Baloney Sandwich!",
+            "{attacker}, how did you know that {defender} was lying?",
+            "Congratulations, {attacker}, you mopped the floor with {defender}!",
+            "You might want to hire a lawyer against {attacker}, {defender}.",
+            "{attacker} has given to you a nice bundle of birthday cards, {defender}.",
+            "I see that {attacker} might be hitting a bit too hard on {defender}.",
+            "You've got this, {attacker}, give a nice punch to {defender}.",
+            "You might want to think twice before letting {attacker} call Baloney Sandwich on you, {defender}.");
+
+    private static final Template[] DEATH = parse(PLAYER,
+            "{player} has unfortunately died...", "{player} could have won...",
+            "{player} might do better next time...", "{player}... Aww, don't cry...",
+            "{player}, at least I got you a teddy bear...", "{player}, I feel sad now because of you. :(",
+            "{player}... Sorry... :(", "{player}, don't be sad... Have a hug.", "{player}, you will be missed...",
+            "{player}... maybe next time.", "{player}, practice makes perfect.", "{player}, don't let your hopes down.",
+            "{player}, maybe if we can resurrect you, you might have another shot.",
+            "{player}, the times are tough...", "{player}, keep calm and carry on.", "{player}, I know... it's OK buddy.",
+            "{player}, now is the time to look at cute photos of dogs and cats.", "{player}, you have worked very hard.",
+            "{player}, don't give up.", "{player}, you've been a good fighter.");
+
+    private static final Template[] QUIT = parse(PLAYER,
+            "{player} is a coward.", "{player} quitted... what a coward.", "{player}, I kindly beg you to differ.",
+            "{player} is insta-killed.", "{player} should reconsider.", "{player} made the dumbest decision.",
+            "{player} committed suicide.", "{player} disappeared without a trace.",
+            "{player}, stop inviting people to quit!", "{player} has won the Darwin Award!",
+            "{player}, where did you go?", "{player}, I don't think you could run away from death.",
+            "{player}, stop hurting yourself!", "{player} tried to escape.",
+            "{player} has won the game... Oh wait, nevermind!", "{player} should stop quitting games!",
+            "{player}, you should have played Electric Field Hockey instead!", "{player}, stop being so impatient!",
+            "{player}, I'm pretty sure quitting will get you mercilessly killed.", "{player} took the easy way out!",
+            "{player}, that is not professional!", "{player}, take a look at what you've done!",
+            "{player}, you thought you could get away with quitting.", "{player}, you've given up your right to rejoin.",
+            "{player}, you might have embarrassed yourself...", "{player} will not be missed.");
+
+    private static volatile long nextDayMillis = Long.MIN_VALUE;
+    private static volatile boolean aprilFools;
+
+    private Commentary() {
+    }
+
+    /**
+     * @return A comment for a Baloney Sandwich call on a player who had only put down the cards they claimed.
+     */
+    public static String failure(String attacker, String defender, SplittableRandom random) {
+        int index = random.nextInt(FAILURE.length);
+        Template template = index == APRIL_FOOLS_INDEX && isAprilFools() ? APRIL_FOOLS : FAILURE[index];
+        return template.fill(attacker, defender);
+    }
+
+    /**
+     * @return A comment for a Baloney Sandwich call that caught the defender lying.
+     */
+    public static String success(String attacker, String defender, SplittableRandom random) {
+        return SUCCESS[random.nextInt(SUCCESS.length)].fill(attacker, defender);
+    }
+
+    /**
+     * @return A comment on a player whose health ran out, starting with the name of the player.
+     */
+    public static String death(String player, SplittableRandom random) {
+        return DEATH[random.nextInt(DEATH.length)].fill(player, null);
+    }
+
+    /**
+     * @return A comment on a player who quit the game, starting with the name of the player.
+     */
+    public static String quit(String player, SplittableRandom random) {
+        return QUIT[random.nextInt(QUIT.length)].fill(player, null);
+    }
+
+    /**
+     * Looks at the calendar at most once a day.
+     */
+    private static boolean isAprilFools() {
+        long now = System.currentTimeMillis();
+        if (now >= nextDayMillis) {
+            ZoneId zone = ZoneId.systemDefault();
+            LocalDate today = LocalDate.now(zone);
+            aprilFools = today.getMonth() == Month.APRIL && today.getDayOfMonth() == 1;
+            nextDayMillis = today.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+        }
+        return aprilFools;
+    }
+
+    private static Template[] parse(String[] slotNames, String... templates) {
+        Template[] parsed = new Template[templates.length];
+        for (int i = 0; i < templates.length; i++) {
+            parsed[i] = new Template(templates[i], slotNames);
+        }
+        return parsed;
+    }
+
+    /**
+     * A comment split into its text and the arguments between the pieces of text.
+     */
+    private static final class Template {
+        private final String[] text;
+        private final int[] slots;
+        private final int textLength;
+
+        /**
+         * @param template The comment, with slots such as {@code {player}}.
+         * @param slotNames The names of the first and, if there is one, the second argument of {@link #fill}.
+         * @throws IllegalArgumentException If the template uses a slot that is not named.
+         */
+        Template(String template, String[] slotNames) {
+            int count = 0;
+            for (int i = template.indexOf('{'); i >= 0; i = template.indexOf('{', i + 1)) {
+                count++;
+            }
+            text = new String[count + 1];
+            slots = new int[count];
+            int start = 0, length = 0;
+            for (int i = 0; i < count; i++) {
+                int open = template.indexOf('{', start), close = template.indexOf('}', open);
+                text[i] = template.substring(start, open);
+                slots[i] = indexOf(slotNames, template.substring(open + 1, close));
+                length += text[i].length();
+                start = close + 1;
+            }
+            text[count] = template.substring(start);
+            textLength = length + text[count].length();
+        }
+
+        private static int indexOf(String[] slotNames, String name) {
+            for (int i = 0; i < slotNames.length; i++) {
+                if (slotNames[i].equals(name)) {
+                    return i;
+                }
+            }
+            throw new IllegalArgumentException("Unknown slot: " + name);
+        }
+
+        String fill(String first, String second) {
+            int length = textLength;
+            for (int slot : slots) {
+                length += (slot == 0 ? first : second).length();
+            }
+            StringBuilder comment = new StringBuilder(length);
+            for (int i = 0; i < slots.length; i++) {
+                comment.append(text[i]).append(slots[i] == 0 ? first : second);
+            }
+            return comment.append(text[slots.length]).toString();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package misc;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Names content by what it contains, so the server and every client agree on the name of an avatar without
+ * sending the avatar itself.
+ */
+public final class ContentHash {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private ContentHash() {
+    }
+
+    /**
+     * @param bytes The content.
+     * @return The SHA-256 of the content as 64 lowercase hex digits.
+     */
+    public static String of(byte[] bytes) {
+        return toHex(digest().digest(bytes));
+    }
+
+    /**
+     * Finishes a hash of content that arrived in pieces.
+     * @param digest A digest made by {@link #digest()} and updated with the content.
+     * @return The same hash {@link #of} gives for the whole content.
+     */
+    public static String of(MessageDigest digest) {
+        return toHex(digest.digest());
+    }
+
+    /**
+     * @return A new digest of the kind the hashes are made with.
+     */
+    public static MessageDigest digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform has to provide SHA-256.
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String toHex(byte[] digest) {
+        char[] chars = new char[digest.length * 2];
+        for (int i = 0; i < digest.length; i++) {
+            chars[i * 2] = HEX[(digest[i] >> 4) & 0xF];
+            chars[i * 2 + 1] = HEX[digest[i] & 0xF];
+        }
+        return new String(chars);
+    }
+
+    /**
+     * @return Whether the text could be a hash made by {@link #of}. Hashes end up in file names, so nothing
+     * else may be used as one.
+     */
+    public static boolean isValid(String hash) {
+        if (hash.length() != 64) {
+            return false;
+        }
+        for (int i = 0; i < hash.length(); i++) {
+            char c = hash.charAt(i);
+            if ((c < '0' || c > '9') && (c < 'a' || c > 'f')) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -23,10 +23,19 @@ public class ListExtension {
         if (cardList.length() == 0) {
             return new ArrayList<>();
         }
-        List<Card> cards = new ArrayList<>();
-        String[] cardArray = cardList.split(" ");
-        for (String card : cardArray) {
-            cards.add(new Card(card));
+        List<Card> cards = new ArrayList<>(cardList.length() / 3 + 1);
+        int end = cardList.length();
+        while (end > 0 && cardList.charAt(end - 1) == ' ') {
+            end--;
+        }
+        // Reads the short names in place instead of splitting the list into strings.
+        for (int start = 0; start < end; start++) {
+            int space = cardList.indexOf(' ', start);
+            if (space < 0 || space > end) {
+                space = end;
+            }
+            cards.add(space - start < 2 ? Card.JOKER : Card.of(cardList.charAt(start), cardList.charAt(start + 1)));
+            start = space;
         }
         return cards;
     }
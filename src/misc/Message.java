@@ -0,0 +1,188 @@
+package misc;
+
+import client.Card;
+import client.CardSet;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A decoded message. The fields are laid out exactly like the tab-separated text format, so the opcode
+ * is also found at index 2, no matter which protocol the message arrived in.
+ * <p>
+ * A message read as text keeps the bytes of its line and where each field starts. Fields only become strings
+ * when they are asked for, and numbers and card lists are read straight from the bytes.
+ */
+public class Message {
+    private static final Charset CHARSET = Charset.defaultCharset();
+    private final Opcode opcode;
+    private final byte[] line;
+    /**
+     * Where each field of the line starts, followed by the end of the line plus one.
+     */
+    private final int[] starts;
+    private final String[] data;
+
+    public Message(Opcode opcode, String[] data) {
+        this.opcode = opcode;
+        this.data = data;
+        line = null;
+        starts = null;
+    }
+
+    /**
+     * @param line The bytes of a line of the text protocol, without its line terminator. The message keeps
+     *             the array, which must not be changed afterwards.
+     * @param starts Where each field starts, followed by the length of the line plus one.
+     * @param fields The number of fields.
+     */
+    Message(byte[] line, int[] starts, int fields) {
+        this.line = line;
+        this.starts = starts;
+        data = new String[fields];
+        opcode = fields > 2 ? Opcode.of(line, starts[2], starts[3] - 1 - starts[2]) : null;
+    }
+
+    /**
+     * @param line A message in the text protocol, without its line terminator.
+     * @return The message split into its fields.
+     */
+    public static Message parse(String line) {
+        String[] data = line.split("\t");
+        return new Message(data.length > 2 ? Opcode.of(data[2]) : null, data);
+    }
+
+    /**
+     * @return The opcode, or null if the message has an unknown opcode.
+     */
+    public Opcode getOpcode() {
+        return opcode;
+    }
+
+    /**
+     * @return The opcode as it was written, even if it is unknown.
+     */
+    public String getCode() {
+        return size() > 2 ? get(2) : "";
+    }
+
+    /**
+     * @return The number of fields.
+     */
+    public int size() {
+        return data.length;
+    }
+
+    /**
+     * @param index The index of the field.
+     * @return The field as a string, which is only built the first time it is asked for.
+     * @throws ArrayIndexOutOfBoundsException If the message has no such field.
+     */
+    public String get(int index) {
+        String field = data[index];
+        if (field == null) {
+            field = new String(line, starts[index], length(index), CHARSET);
+            data[index] = field;
+        }
+        return field;
+    }
+
+    /**
+     * Reads a field as a number without turning it into a string first.
+     * @param index The index of the field.
+     * @return The number.
+     * @throws NumberFormatException If the field is not a decimal number.
+     */
+    public int getInt(int index) {
+        if (line == null || data[index] != null) {
+            return Integer.parseInt(get(index));
+        }
+        int start = starts[index], end = start + length(index);
+        boolean negative = start < end && line[start] == '-';
+        if (negative || (start < end && line[start] == '+')) {
+            start++;
+        }
+        if (start == end || end - start > 9) {
+            return Integer.parseInt(get(index));
+        }
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            int digit = line[i] - '0';
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException("For input string: \"" + get(index) + "\"");
+            }
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Reads a field of short card names separated by spaces, as {@link ListExtension#stringToCardList} does.
+     * @param index The index of the field.
+     * @return The cards, in the order they were written.
+     */
+    public List<Card> getCards(int index) {
+        if (line == null || data[index] != null) {
+            return ListExtension.stringToCardList(get(index));
+        }
+        int end = starts[index] + length(index);
+        List<Card> cards = new ArrayList<>((end - starts[index]) / 3 + 1);
+        while (end > starts[index] && line[end - 1] == ' ') {
+            end--;
+        }
+        for (int start = starts[index]; start < end; start++) {
+            int space = start;
+            while (space < end && line[space] != ' ') {
+                space++;
+            }
+            cards.add(space - start < 2 ? Card.JOKER : Card.of((char) line[start], (char) line[start + 1]));
+            start = space;
+        }
+        return cards;
+    }
+
+    /**
+     * Reads a field of short card names separated by spaces into a set.
+     * @param index The index of the field.
+     * @return The cards.
+     */
+    public CardSet getCardSet(int index) {
+        if (line == null || data[index] != null) {
+            return CardSet.parse(get(index));
+        }
+        CardSet cards = new CardSet();
+        int end = starts[index] + length(index);
+        for (int i = starts[index]; i + 1 < end; i += 3) {
+            cards.add(Card.of((char) line[i], (char) line[i + 1]));
+        }
+        return cards;
+    }
+
+    /**
+     * @return Every field as a string.
+     */
+    public String[] getData() {
+        if (line != null) {
+            for (int i = 0; i < data.length; i++) {
+                get(i);
+            }
+        }
+        return data;
+    }
+
+    private int length(int index) {
+        return starts[index + 1] - 1 - starts[index];
+    }
+
+    /**
+     * @return The message in the text protocol.
+     */
+    @Override
+    public String toString() {
+        if (line != null) {
+            return new String(line, 0, line.length, CHARSET);
+        }
+        return String.join("\t", data);
+    }
+}
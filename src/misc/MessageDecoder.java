@@ -0,0 +1,106 @@
+package misc;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Cuts a stream of bytes into messages, either tab-separated lines or binary frames. The same decoder is used
+ * for blocking streams and for the non-blocking server, which both keep their unread bytes in a heap buffer.
+ */
+public class MessageDecoder {
+    /**
+     * The longest line or frame either side accepts, in bytes. A peer that sends more without ending its
+     * message is disconnected before its buffer can grow any further. Avatars, the largest messages, are sent
+     * in chunks well below this, and a whole {@link Opcode#AV} reply of a 100 by 100 PNG still fits.
+     */
+    public static final int MAX_MESSAGE_LENGTH = 64 * 1024;
+    private volatile boolean binary = false;
+    private int scanned = 0;
+    /**
+     * Where the fields of the current line start, reused for every line.
+     */
+    private int[] starts = new int[16];
+    private int fields = 0;
+
+    /**
+     * @param buffer The bytes read so far, ready to be read from.
+     * @return The next message, or null if it has not been read completely yet.
+     * @throws IllegalArgumentException If a binary frame is malformed or a message is longer than
+     * {@link #MAX_MESSAGE_LENGTH}.
+     */
+    public Message next(ByteBuffer buffer) {
+        if (binary) {
+            return BinaryCodec.decode(buffer);
+        }
+        int start = buffer.position();
+        if (scanned == 0) {
+            fields = 0;
+            addField(0);
+        }
+        byte[] array = buffer.array();
+        int offset = buffer.arrayOffset();
+        for (int i = start + scanned; i < buffer.limit(); i++) {
+            byte b = array[offset + i];
+            if (b == '\t') {
+                addField(i + 1 - start);
+            } else if (b == '\n') {
+                if (i - start > MAX_MESSAGE_LENGTH) {
+                    throw tooLong();
+                }
+                int end = i > start && array[offset + i - 1] == '\r' ? i - 1 : i;
+                buffer.position(i + 1);
+                scanned = 0;
+                return toMessage(array, offset + start, end - start);
+            }
+        }
+        scanned = buffer.remaining();
+        if (scanned > MAX_MESSAGE_LENGTH) {
+            throw tooLong();
+        }
+        return null;
+    }
+
+    private static IllegalArgumentException tooLong() {
+        return new IllegalArgumentException("Line is longer than " + MAX_MESSAGE_LENGTH + " bytes.");
+    }
+
+    private void addField(int start) {
+        if (fields == starts.length) {
+            starts = Arrays.copyOf(starts, fields * 2);
+        }
+        starts[fields++] = start;
+    }
+
+    /**
+     * Copies the line out of the buffer, which is reused, and drops empty fields at its end like
+     * {@code split("\t")} does.
+     */
+    private Message toMessage(byte[] array, int from, int length) {
+        int count = fields;
+        while (length > 0 && count > 0 && fieldEnd(count - 1, length) == starts[count - 1]) {
+            count--;
+        }
+        int lineLength = count == 0 ? 0 : fieldEnd(count - 1, length);
+        int[] lineStarts = Arrays.copyOf(starts, count + 1);
+        lineStarts[count] = lineLength + 1;
+        return new Message(Arrays.copyOfRange(array, from, from + lineLength), lineStarts, count);
+    }
+
+    private int fieldEnd(int field, int length) {
+        return field == fields - 1 ? length : starts[field + 1] - 1;
+    }
+
+    /**
+     * Switches between the text and the binary protocol. Bytes that are already buffered but not decoded yet
+     * are decoded with the new protocol.
+     * @param binary Whether the following messages are binary frames.
+     */
+    public void setBinary(boolean binary) {
+        this.binary = binary;
+        scanned = 0;
+    }
+
+    public boolean isBinary() {
+        return binary;
+    }
+}
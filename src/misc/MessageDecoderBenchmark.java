@@ -0,0 +1,171 @@
+package misc;
+
+import client.Card;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares {@link MessageDecoder} with the decoder it replaced, which made a string of every line and split it
+ * at its tabs before any field was read. Both decode the same mix of chat, draw and card messages and read the
+ * fields the server reads from them.
+ * <p>
+ * Usage: {@code java misc.MessageDecoderBenchmark [--messages=200000] [--rounds=20]}
+ * <p>
+ * It prints the time and, where the JVM can tell, the memory allocated per message for each decoder.
+ */
+public class MessageDecoderBenchmark {
+    private static final String[] LINES = {
+            "alice\tDid anyone else just see that? That was definitely not three queens.\tM",
+            "alice\t3\tDCs",
+            "bob\tQs Qh Qd\tBS\t12\t5",
+            "carol\tAd Ah 3s 4d 4h 5c 5d 5h 5s 6c 6d 6s 7c 7h 8c 8s 9h 9s Tc Td Ts Js Qs Kc Kd Ks\tG",
+    };
+    private static volatile long sink;
+
+    public static void main(String[] args) {
+        int messages = 200000, rounds = 20;
+        for (String arg : args) {
+            if (arg.startsWith("--messages=")) {
+                messages = Integer.parseInt(arg.substring("--messages=".length()));
+            } else if (arg.startsWith("--rounds=")) {
+                rounds = Integer.parseInt(arg.substring("--rounds=".length()));
+            }
+        }
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < messages; i++) {
+            text.append(LINES[i % LINES.length]).append('\n');
+        }
+        byte[] bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+
+        // The first rounds only warm up the JIT compiler.
+        for (int i = 0; i < rounds; i++) {
+            sink += decodeInPlace(bytes) + decodeBySplit(bytes);
+        }
+        report("split", messages, rounds, () -> decodeBySplit(bytes));
+        report("in place", messages, rounds, () -> decodeInPlace(bytes));
+    }
+
+    private static void report(String name, int messages, int rounds, Round round) {
+        com.sun.management.ThreadMXBean threads = allocationCounter();
+        long thread = threads != null ? currentThreadId() : -1;
+        if (thread < 0) {
+            threads = null;
+        }
+        long allocated = threads != null ? threads.getThreadAllocatedBytes(thread) : 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            sink += round.run();
+        }
+        long nanos = System.nanoTime() - start;
+        String memory = threads != null ? String.format(", %d bytes per message",
+                (threads.getThreadAllocatedBytes(thread) - allocated) / ((long) messages * rounds)) : "";
+        System.out.printf("%-8s %6.1f ns per message%s%n", name, (double) nanos / messages / rounds, memory);
+    }
+
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        return threads instanceof com.sun.management.ThreadMXBean ? (com.sun.management.ThreadMXBean) threads : null;
+    }
+
+    /**
+     * Thread.getId is deprecated from Java 19 on, in favour of threadId, which older runtimes do not have.
+     * @return The id of the current thread, or -1 if neither method can be called.
+     */
+    private static long currentThreadId() {
+        for (String name : new String[] {"threadId", "getId"}) {
+            try {
+                return (long) Thread.class.getMethod(name).invoke(Thread.currentThread());
+            } catch (ReflectiveOperationException e) {
+                // Try the next one.
+            }
+        }
+        return -1;
+    }
+
+    private static long decodeInPlace(byte[] bytes) {
+        MessageDecoder decoder = new MessageDecoder();
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        long read = 0;
+        Message message;
+        while ((message = decoder.next(buffer)) != null) {
+            read += use(message);
+        }
+        return read;
+    }
+
+    /**
+     * Reads the fields the handler of each opcode reads.
+     */
+    private static long use(Message message) {
+        switch (message.getOpcode()) {
+            case M:
+                return message.get(0).length() + message.get(1).length();
+            case DCs:
+                return message.get(0).length() + message.getInt(1);
+            case BS:
+                return message.getCards(1).size() + message.getInt(3) + message.getInt(4);
+            case G:
+                return message.get(0).length() + message.getCards(1).size();
+            default:
+                return 0;
+        }
+    }
+
+    private static long decodeBySplit(byte[] bytes) {
+        Charset charset = Charset.defaultCharset();
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        long read = 0;
+        while (true) {
+            int start = buffer.position();
+            String line = null;
+            for (int i = start; i < buffer.limit(); i++) {
+                if (buffer.get(i) == '\n') {
+                    int end = i > start && buffer.get(i - 1) == '\r' ? i - 1 : i;
+                    line = new String(buffer.array(), buffer.arrayOffset() + start, end - start, charset);
+                    buffer.position(i + 1);
+                    break;
+                }
+            }
+            if (line == null) {
+                return read;
+            }
+            String[] data = line.split("\t");
+            switch (Opcode.of(data[2])) {
+                case M:
+                    read += data[0].length() + data[1].length();
+                    break;
+                case DCs:
+                    read += data[0].length() + Integer.parseInt(data[1]);
+                    break;
+                case BS:
+                    read += splitCards(data[1]).size() + Integer.parseInt(data[3]) + Integer.parseInt(data[4]);
+                    break;
+                case G:
+                    read += data[0].length() + splitCards(data[1]).size();
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    /**
+     * How {@link ListExtension#stringToCardList} read a list of cards before.
+     */
+    private static List<Card> splitCards(String cardList) {
+        List<Card> cards = new ArrayList<>();
+        for (String card : cardList.split(" ")) {
+            cards.add(Card.of(card));
+        }
+        return cards;
+    }
+
+    private interface Round {
+        long run();
+    }
+}
@@ -0,0 +1,65 @@
+package misc;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Reads messages from a blocking stream. Unlike a {@code BufferedReader}, it can switch to the binary protocol
+ * without losing the bytes it has already buffered.
+ */
+public class MessageReader {
+    private final InputStream in;
+    private final MessageDecoder decoder = new MessageDecoder();
+    private ByteBuffer buffer = ByteBuffer.allocate(8192);
+
+    public MessageReader(InputStream in) {
+        this.in = in;
+        buffer.limit(0);
+    }
+
+    /**
+     * Blocks until a whole message has been read.
+     * @return The message, or null if the stream has ended.
+     * @throws IOException If the stream cannot be read or a binary frame is malformed.
+     */
+    public Message read() throws IOException {
+        while (true) {
+            Message message;
+            try {
+                message = decoder.next(buffer);
+            } catch (IllegalArgumentException e) {
+                throw new IOException(e.getMessage(), e);
+            }
+            if (message != null) {
+                return message;
+            }
+            if (!fill()) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * @param binary Whether the following messages are binary frames.
+     */
+    public void setBinary(boolean binary) {
+        decoder.setBinary(binary);
+    }
+
+    private boolean fill() throws IOException {
+        buffer.compact();
+        if (!buffer.hasRemaining()) {
+            ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() * 2);
+            buffer.flip();
+            larger.put(buffer);
+            buffer = larger;
+        }
+        int read = in.read(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+        if (read > 0) {
+            buffer.position(buffer.position() + read);
+        }
+        buffer.flip();
+        return read >= 0;
+    }
+}
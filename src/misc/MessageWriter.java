@@ -0,0 +1,53 @@
+package misc;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+
+/**
+ * A {@link PrintWriter} that can switch to the binary protocol. Once switched, every {@link #println(String)}
+ * is sent as a binary frame instead of a line, so callers keep writing tab-separated messages either way.
+ */
+public class MessageWriter extends PrintWriter {
+    private final OutputStream out;
+    private volatile boolean binary = false;
+
+    public MessageWriter(OutputStream out) {
+        this(new BufferedOutputStream(out));
+    }
+
+    private MessageWriter(BufferedOutputStream out) {
+        super(out);
+        this.out = out;
+    }
+
+    /**
+     * @param binary Whether the following messages are sent as binary frames.
+     */
+    public void setBinary(boolean binary) {
+        synchronized (lock) {
+            flush();
+            this.binary = binary;
+        }
+    }
+
+    public boolean isBinary() {
+        return binary;
+    }
+
+    @Override
+    public void println(String x) {
+        if (!binary) {
+            super.println(x);
+            return;
+        }
+        synchronized (lock) {
+            try {
+                out.write(BinaryCodec.encode(x.split("\t")));
+            } catch (IOException | IllegalArgumentException e) {
+                setError();
+            }
+        }
+    }
+}
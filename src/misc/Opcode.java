@@ -0,0 +1,106 @@
+package misc;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Every message type of the protocol. In the text protocol the opcode is the third tab-separated field,
+ * in the binary protocol it is the first byte of the frame, which is the ordinal of the constant.
+ * New opcodes must be added at the end so the binary codes of the old ones stay the same.
+ */
+public enum Opcode {
+    B, C, D, M, IM, DCs, Q, DC, ID, I, CCP, CNCP, NBS, PAs, DAI, BSS, BSF, DR, CL, PC, RD, MC, MH, DCD, DCA, DrC,
+    INVALID_CARDS("INVALID-CARDS"), NOT_YOUR_TURN("NOT-YOUR-TURN"),
+    F, R, G, SP, T, TURN, BS, E, DB, EB, ADD, RC, RCs, DPM, MF, RV, RVS, MS, CC, MOD,
+    GAV, AV, IMS, IMC, IMA;
+
+    private static final Opcode[] BY_BYTE = values();
+    private static final Map<String, Opcode> BY_CODE = new HashMap<>();
+    private static final int MAX_LENGTH = 16;
+    /**
+     * The opcodes by the length and the first character of their text code, so a lookup only compares the
+     * few opcodes that share both.
+     */
+    private static final Opcode[][] BY_START = new Opcode[128 * MAX_LENGTH][];
+
+    static {
+        for (Opcode opcode : BY_BYTE) {
+            BY_CODE.put(opcode.code, opcode);
+            int start = startOf(opcode.code.charAt(0), opcode.code.length());
+            Opcode[] candidates = BY_START[start] == null ? new Opcode[1]
+                    : Arrays.copyOf(BY_START[start], BY_START[start].length + 1);
+            candidates[candidates.length - 1] = opcode;
+            BY_START[start] = candidates;
+        }
+    }
+
+    private final String code;
+
+    Opcode() {
+        code = name();
+    }
+
+    Opcode(String code) {
+        this.code = code;
+    }
+
+    /**
+     * @return The opcode as it is written in the text protocol.
+     */
+    public String getCode() {
+        return code;
+    }
+
+    /**
+     * @param code The opcode as it is written in the text protocol.
+     * @return The opcode, or null if it is unknown.
+     */
+    public static Opcode of(String code) {
+        return BY_CODE.get(code);
+    }
+
+    /**
+     * Looks up an opcode written in the text protocol without building a string.
+     * @param bytes The bytes that contain the opcode.
+     * @param offset Where the opcode starts.
+     * @param length The length of the opcode in bytes.
+     * @return The opcode, or null if it is unknown.
+     */
+    public static Opcode of(byte[] bytes, int offset, int length) {
+        if (length <= 0 || length >= MAX_LENGTH || bytes[offset] < 0) {
+            return null;
+        }
+        Opcode[] candidates = BY_START[startOf(bytes[offset], length)];
+        if (candidates != null) {
+            for (Opcode opcode : candidates) {
+                if (matches(opcode.code, bytes, offset)) {
+                    return opcode;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static int startOf(int first, int length) {
+        return first * MAX_LENGTH + length;
+    }
+
+    private static boolean matches(String code, byte[] bytes, int offset) {
+        for (int i = 0; i < code.length(); i++) {
+            if (bytes[offset + i] != code.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param b The opcode as it is written in the binary protocol.
+     * @return The opcode, or null if it is unknown.
+     */
+    public static Opcode of(byte b) {
+        int index = b & 0xFF;
+        return index < BY_BYTE.length ? BY_BYTE[index] : null;
+    }
+}
@@ -1,96 +1,77 @@
 package misc;
 
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
 
+/**
+ * A map whose entries can be found by either of two keys, such as a username and a seat. Both keys are
+ * indexed, so looking up, adding and removing an entry take constant time. An entry replaces every entry that
+ * has either of its keys, and the entries keep the order they were put in.
+ */
 public class TwoKeyMap<K1, K2, V> {
-    private List<MapNode<K1, K2, V>> nodes;
-    private Set<K1> key1Set = new HashSet<>();
-    private Set<K2> key2Set = new HashSet<>();
-
-    public TwoKeyMap() {
-        nodes = new ArrayList<>();
-    }
+    private final Map<K1, MapNode<K1, K2, V>> byKey1 = new LinkedHashMap<>();
+    private final Map<K2, MapNode<K1, K2, V>> byKey2 = new HashMap<>();
 
     public void put(K1 key1, K2 key2, V value) {
-        boolean b1 = key1Set.add(key1);
-        boolean b2 = key2Set.add(key2);
-        if (b1 && b2) {
-            nodes.add(new MapNode<>(key1, key2, value));
-        } else if (b1) {
-            nodes.removeIf(n -> n.key2.equals(key2));
-            key1Set.remove(key1);
-            nodes.add(new MapNode<>(key1, key2, value));
-        } else if (b2) {
-            nodes.removeIf(n -> n.key1.equals(key1));
-            key2Set.remove(key2);
-            nodes.add(new MapNode<>(key1, key2, value));
-        } else {
-            nodes.removeIf(n -> n.key1.equals(key1));
-            nodes.add(new MapNode<>(key1, key2, value));
-        }
+        removeKey1(key1);
+        removeKey2(key2);
+        MapNode<K1, K2, V> node = new MapNode<>(key1, key2, value);
+        byKey1.put(key1, node);
+        byKey2.put(key2, node);
     }
 
     public void removeKey1(K1 key1) {
-        List<K1> key1List = new ArrayList<>(key1Set);
-        List<K2> key2List = new ArrayList<>(key2Set);
-        int index = key1List.indexOf(key1);
-        if (index != -1) {
-            key1Set.remove(key1);
-            key2Set.remove(key2List.get(index));
-            nodes.removeIf(n -> n.key1 == key1);
+        MapNode<K1, K2, V> node = byKey1.remove(key1);
+        if (node != null) {
+            byKey2.remove(node.key2);
         }
     }
 
     public void removeKey2(K2 key2) {
-        List<K1> key1List = new ArrayList<>(key1Set);
-        List<K2> key2List = new ArrayList<>(key2Set);
-        int index = key2List.indexOf(key2);
-        if (index != -1) {
-            key1Set.remove(key1List.get(index));
-            key2Set.remove(key2);
-            nodes.removeIf(n -> n.key2 == key2);
+        MapNode<K1, K2, V> node = byKey2.remove(key2);
+        if (node != null) {
+            byKey1.remove(node.key1);
         }
     }
 
+    /**
+     * @return The value, or null if no entry has the key.
+     */
     public V getValueFromKey1(K1 key1) {
-        final int[] index = {-1};
-        for (int i = 0; i < nodes.size(); i++) {
-            MapNode<K1, K2, V> node = nodes.get(i);
-            if (node.key1.equals(key1)) {
-                index[0] = i;
-            }
-        }
-        return nodes.get(index[0]).value;
+        MapNode<K1, K2, V> node = byKey1.get(key1);
+        return node != null ? node.value : null;
     }
 
+    /**
+     * @return The value, or null if no entry has the key.
+     */
     public V getValueFromKey2(K2 key2) {
-        final int[] index = {-1};
-        for (int i = 0; i < nodes.size(); i++) {
-            MapNode<K1, K2, V> node = nodes.get(i);
-            if (node.key2.equals(key2)) {
-                index[0] = i;
-            }
-        }
-        return nodes.get(index[0]).value;
+        MapNode<K1, K2, V> node = byKey2.get(key2);
+        return node != null ? node.value : null;
     }
 
+    /**
+     * @return A copy of the values, in the order they were put in.
+     */
     public List<V> getValues() {
-        List<V> values = new ArrayList<>();
-        nodes.forEach(n -> values.add(n.value));
+        List<V> values = new ArrayList<>(byKey1.size());
+        byKey1.values().forEach(n -> values.add(n.value));
         return values;
     }
 
     public String toString() {
 
         StringBuilder string = new StringBuilder();
-        for (MapNode node : nodes) {
-            string.append("(").append(node.key1).append(",").append(node.key2).append("), ");
-        }
-        if (string.length() >= 2) {
-            string.delete(string.length() - 2, string.length());
+        for (Iterator<MapNode<K1, K2, V>> nodes = byKey1.values().iterator(); nodes.hasNext(); ) {
+            MapNode<K1, K2, V> node = nodes.next();
+            string.append("(").append(node.key1).append(",").append(node.key2).append(")");
+            if (nodes.hasNext()) {
+                string.append(", ");
+            }
         }
         return string.toString();
     }
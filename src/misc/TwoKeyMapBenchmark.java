@@ -0,0 +1,164 @@
+package misc;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Compares {@link TwoKeyMap} with the map it replaced, which kept its entries in a list and searched the list
+ * for every lookup. Both are filled with the same players and then looked up by name and by seat, and have
+ * players replaced, the way the client uses its table.
+ * <p>
+ * Usage: {@code java misc.TwoKeyMapBenchmark [--operations=2000000]}
+ * <p>
+ * It prints the time per operation for a full table of 8 players and for a table of 1000.
+ */
+public class TwoKeyMapBenchmark {
+    private static volatile long sink;
+
+    public static void main(String[] args) {
+        int operations = 2000000;
+        for (String arg : args) {
+            if (arg.startsWith("--operations=")) {
+                operations = Integer.parseInt(arg.substring("--operations=".length()));
+            }
+        }
+        for (int players : new int[] {8, 1000}) {
+            // The first rounds only warm up the JIT compiler.
+            for (int i = 0; i < 5; i++) {
+                sink += run(new IndexedTable(), players, operations / 10) + run(new ListTable(), players, operations / 10);
+            }
+            report("list", players, operations, new ListTable());
+            report("indexed", players, operations, new IndexedTable());
+        }
+    }
+
+    private static void report(String name, int players, int operations, Table table) {
+        long start = System.nanoTime();
+        sink += run(table, players, operations);
+        long nanos = System.nanoTime() - start;
+        System.out.printf("%-7s %4d players %8.1f ns per operation%n", name, players, (double) nanos / operations);
+    }
+
+    /**
+     * Looks players up by name and by seat, and every sixteenth operation seats a player again.
+     */
+    private static long run(Table table, int players, int operations) {
+        String[] names = new String[players];
+        for (int i = 0; i < players; i++) {
+            names[i] = "player" + i;
+            table.put(names[i], i, i);
+        }
+        long found = 0;
+        for (int i = 0; i < operations; i++) {
+            int seat = (int) ((i * 0x9E3779B9L) % players);
+            if ((i & 15) == 0) {
+                table.removeKey1(names[seat]);
+                table.put(names[seat], seat, i);
+            } else if ((i & 1) == 0) {
+                found += table.getValueFromKey1(names[seat]);
+            } else {
+                found += table.getValueFromKey2(seat);
+            }
+        }
+        return found;
+    }
+
+    private interface Table {
+        void put(String name, Integer seat, Integer value);
+
+        void removeKey1(String name);
+
+        Integer getValueFromKey1(String name);
+
+        Integer getValueFromKey2(Integer seat);
+    }
+
+    private static class IndexedTable implements Table {
+        private final TwoKeyMap<String, Integer, Integer> map = new TwoKeyMap<>();
+
+        @Override
+        public void put(String name, Integer seat, Integer value) {
+            map.put(name, seat, value);
+        }
+
+        @Override
+        public void removeKey1(String name) {
+            map.removeKey1(name);
+        }
+
+        @Override
+        public Integer getValueFromKey1(String name) {
+            return map.getValueFromKey1(name);
+        }
+
+        @Override
+        public Integer getValueFromKey2(Integer seat) {
+            return map.getValueFromKey2(seat);
+        }
+    }
+
+    /**
+     * The lookups and removals of the map before it was indexed.
+     */
+    private static class ListTable implements Table {
+        private final List<MapNode<String, Integer, Integer>> nodes = new ArrayList<>();
+        private final Set<String> key1Set = new HashSet<>();
+        private final Set<Integer> key2Set = new HashSet<>();
+
+        @Override
+        public void put(String key1, Integer key2, Integer value) {
+            boolean b1 = key1Set.add(key1);
+            boolean b2 = key2Set.add(key2);
+            if (b1 && b2) {
+                nodes.add(new MapNode<>(key1, key2, value));
+            } else if (b1) {
+                nodes.removeIf(n -> n.key2.equals(key2));
+                key1Set.remove(key1);
+                nodes.add(new MapNode<>(key1, key2, value));
+            } else if (b2) {
+                nodes.removeIf(n -> n.key1.equals(key1));
+                key2Set.remove(key2);
+                nodes.add(new MapNode<>(key1, key2, value));
+            } else {
+                nodes.removeIf(n -> n.key1.equals(key1));
+                nodes.add(new MapNode<>(key1, key2, value));
+            }
+        }
+
+        @Override
+        public void removeKey1(String key1) {
+            List<String> key1List = new ArrayList<>(key1Set);
+            List<Integer> key2List = new ArrayList<>(key2Set);
+            int index = key1List.indexOf(key1);
+            if (index != -1) {
+                key1Set.remove(key1);
+                key2Set.remove(key2List.get(index));
+                nodes.removeIf(n -> n.key1 == key1);
+            }
+        }
+
+        @Override
+        public Integer getValueFromKey1(String key1) {
+            int index = -1;
+            for (int i = 0; i < nodes.size(); i++) {
+                if (nodes.get(i).key1.equals(key1)) {
+                    index = i;
+                }
+            }
+            return nodes.get(index).value;
+        }
+
+        @Override
+        public Integer getValueFromKey2(Integer key2) {
+            int index = -1;
+            for (int i = 0; i < nodes.size(); i++) {
+                if (nodes.get(i).key2.equals(key2)) {
+                    index = i;
+                }
+            }
+            return nodes.get(index).value;
+        }
+    }
+}
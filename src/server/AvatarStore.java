@@ -0,0 +1,97 @@
+package server;
+
+import misc.ContentHash;
+import misc.Opcode;
+
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The avatars of the users on the server. Each image is stored once under the hash of its bytes, however many
+ * users picked it, and game messages only carry the hash. Clients ask for the image itself with
+ * {@link Opcode#GAV} when they do not have it cached yet.
+ */
+public class AvatarStore {
+    private final Map<String, Avatar> byHash = new ConcurrentHashMap<>();
+    private final Map<String, String> byUser = new ConcurrentHashMap<>();
+
+    /**
+     * Sets the avatar of a user, replacing the one they had.
+     * @param user The username.
+     * @param bytes The image.
+     * @return The hash of the image.
+     */
+    public String put(String user, byte[] bytes) {
+        String hash = ContentHash.of(bytes);
+        byHash.compute(hash, (h, avatar) -> {
+            avatar = avatar != null ? avatar : new Avatar(h, bytes);
+            avatar.users++;
+            return avatar;
+        });
+        String old = byUser.put(user, hash);
+        if (old != null) {
+            release(old);
+        }
+        return hash;
+    }
+
+    /**
+     * Forgets the avatar of a user. The image is dropped once no user has it anymore.
+     */
+    public void remove(String user) {
+        String hash = byUser.remove(user);
+        if (hash != null) {
+            release(hash);
+        }
+    }
+
+    /**
+     * @return The hash of the avatar of the user, or an empty string if they have none.
+     */
+    public String hashOf(String user) {
+        return byUser.getOrDefault(user, "");
+    }
+
+    /**
+     * @param hash The hash of an avatar.
+     * @return The {@link Opcode#AV} message that carries the avatar, or null if no user has it.
+     */
+    public OutboundMessage get(String hash) {
+        Avatar avatar = byHash.get(hash);
+        return avatar != null ? avatar.message() : null;
+    }
+
+    private void release(String hash) {
+        byHash.computeIfPresent(hash, (h, avatar) -> --avatar.users > 0 ? avatar : null);
+    }
+
+    /**
+     * An image and the number of users that picked it. The count is only changed inside the compute methods
+     * of the map, which hold the lock of its entry.
+     */
+    private static class Avatar {
+        private final String hash;
+        private final byte[] bytes;
+        private volatile OutboundMessage message;
+        private int users = 0;
+
+        Avatar(String hash, byte[] bytes) {
+            this.hash = hash;
+            this.bytes = bytes;
+        }
+
+        /**
+         * @return The message with the image, encoded the first time it is asked for and shared afterwards.
+         */
+        OutboundMessage message() {
+            OutboundMessage message = this.message;
+            if (message == null) {
+                message = MessageEncoder.start().field(hash).field(Base64.getEncoder().encodeToString(bytes))
+                        .opcode(Opcode.AV).build();
+                this.message = message;
+            }
+            return message;
+        }
+    }
+}
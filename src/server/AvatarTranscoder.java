@@ -0,0 +1,78 @@
+package server;
+
+import misc.AvatarUpload;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+
+/**
+ * Turns an uploaded picture into an avatar of exactly the size it is shown at, so clients only ever decode
+ * small images. Uploads are checked against {@link #MAX_BYTES} and {@link #MAX_PIXELS} before any pixel is
+ * decoded, and large pictures are subsampled while they are read instead of being decoded at full size.
+ */
+public final class AvatarTranscoder {
+    /**
+     * The width and height of an avatar, as the clients show it.
+     */
+    public static final int SIZE = 100;
+    public static final int MAX_BYTES = AvatarUpload.MAX_BYTES;
+    public static final long MAX_PIXELS = 25_000_000;
+
+    private AvatarTranscoder() {
+    }
+
+    /**
+     * @param upload A PNG or JPEG picture.
+     * @return The picture scaled to {@link #SIZE} by {@link #SIZE} pixels, as a PNG.
+     * @throws IllegalArgumentException If the upload is too large or is not a picture that can be read.
+     * @throws IOException If the picture is damaged.
+     */
+    public static byte[] transcode(byte[] upload) throws IOException {
+        if (upload.length > MAX_BYTES) {
+            throw new IllegalArgumentException("Avatar is larger than " + MAX_BYTES + " bytes");
+        }
+        BufferedImage picture;
+        try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(upload))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                throw new IllegalArgumentException("Avatar is not a picture");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0), height = reader.getHeight(0);
+                if ((long) width * height > MAX_PIXELS) {
+                    throw new IllegalArgumentException("Avatar has more than " + MAX_PIXELS + " pixels");
+                }
+                // Reading every n-th pixel keeps a few times the final resolution for a smooth scale below.
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = Math.max(1, Math.min(width, height) / (SIZE * 4));
+                param.setSourceSubsampling(step, step, 0, 0);
+                picture = reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+        BufferedImage avatar = new BufferedImage(SIZE, SIZE, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = avatar.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(picture, 0, 0, SIZE, SIZE, null);
+        } finally {
+            graphics.dispose();
+        }
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ImageIO.write(avatar, "png", output);
+        return output.toByteArray();
+    }
+}
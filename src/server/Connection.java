@@ -0,0 +1,62 @@
+package server;
+
+import java.util.List;
+
+/**
+ * A single client connection as seen by the game logic. Implementations decide how the
+ * message actually reaches the socket.
+ */
+public interface Connection {
+    /**
+     * The number of messages that may wait for a client before it is treated as too slow and disconnected,
+     * so a lagging client can never hold up the others or fill the server's memory. Messages are counted one by
+     * one, even when they are queued together as one batch.
+     */
+    int MAX_PENDING_MESSAGES = 1024;
+    /**
+     * The number of messages waiting for a client at which the server stops reading from it, and the number
+     * they have to fall back to before it reads again. A client that sends without reading what it is sent slows
+     * itself down long before it is disconnected.
+     */
+    int PAUSE_READING_PENDING = MAX_PENDING_MESSAGES / 2, RESUME_READING_PENDING = MAX_PENDING_MESSAGES / 4;
+
+    /**
+     * Queues a tab-delimited message for the client. The line terminator is added by the connection.
+     * @param message The message to send.
+     */
+    default void send(String message) {
+        send(new OutboundMessage(message));
+    }
+
+    /**
+     * Queues a message for the client without waiting for it to be written. Sending the same message to many
+     * connections encodes it only once.
+     * @param message The message to send.
+     */
+    void send(OutboundMessage message);
+
+    /**
+     * Queues several messages that are written together, without anything else in between.
+     * @param messages The messages to send, in order.
+     */
+    void sendAll(List<OutboundMessage> messages);
+
+    /**
+     * Sends a last text message, then switches both directions of the connection to the binary protocol.
+     * Nothing else can be sent in between, so the client can switch as soon as it reads this message.
+     * @param message The message to send before switching.
+     */
+    void upgrade(String message);
+
+    /**
+     * Starts reading from the client again if reading was stopped because its handler was busy. Does nothing
+     * if the handler is still busy or too many messages still wait for the client, so it may be called from any
+     * thread at any time.
+     */
+    void resumeReading();
+
+    /**
+     * Closes the underlying socket. Calling this more than once has no effect.
+     */
+    void close();
+}
@@ -0,0 +1,352 @@
+package server;
+
+import misc.Message;
+import misc.MessageDecoder;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Non-blocking server engine. A small fixed set of selector loops owns accepting, reading and writing
+ * for every connection, so idle clients cost a buffer instead of a thread. Connections start with the text
+ * protocol and may be upgraded to the binary protocol during the handshake. The first loop also accepts
+ * new sockets and hands them out to the loops in round-robin order.
+ */
+public class ConnectionEngine implements Runnable {
+    private static final int INITIAL_BUFFER_SIZE = 4096;
+    private static final int MAX_GATHER = 64;
+    private final int port;
+    private final EventLoop[] loops;
+    private final Function<Connection, MessageHandler> handlerFactory;
+    private final BlockingQueue<String> messageQueue;
+    private int nextLoop = 0;
+
+    /**
+     * @param port The port to listen on.
+     * @param workers The number of selector loops, including the one that accepts connections.
+     * @param handlerFactory Creates the handler that receives the messages of a new connection.
+     * @param messageQueue The queue that the server log is drained from.
+     */
+    public ConnectionEngine(int port, int workers, Function<Connection, MessageHandler> handlerFactory,
+                            BlockingQueue<String> messageQueue) {
+        this.port = port;
+        this.handlerFactory = handlerFactory;
+        this.messageQueue = messageQueue;
+        loops = new EventLoop[Math.max(1, workers)];
+    }
+
+    /**
+     * @return The default number of selector loops for this machine.
+     */
+    public static int defaultWorkers() {
+        return Math.min(4, Runtime.getRuntime().availableProcessors());
+    }
+
+    @Override
+    public void run() {
+        try {
+            for (int i = 0; i < loops.length; i++) {
+                loops[i] = new EventLoop();
+            }
+            ServerSocketChannel serverChannel = ServerSocketChannel.open();
+            serverChannel.bind(new InetSocketAddress(port));
+            serverChannel.configureBlocking(false);
+            serverChannel.register(loops[0].selector, SelectionKey.OP_ACCEPT);
+            for (int i = 1; i < loops.length; i++) {
+                Thread thread = new Thread(loops[i], "Event Loop " + i);
+                thread.setDaemon(true);
+                thread.start();
+            }
+            Thread.currentThread().setName("Event Loop 0");
+            loops[0].run();
+        } catch (IOException e) {
+            log("Error in making a connection.");
+            e.printStackTrace();
+        }
+    }
+
+    private void accept(ServerSocketChannel serverChannel) throws IOException {
+        SocketChannel channel;
+        while ((channel = serverChannel.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            EventLoop loop = loops[nextLoop];
+            nextLoop = (nextLoop + 1) % loops.length;
+            SocketChannel accepted = channel;
+            loop.execute(() -> loop.register(accepted));
+            log("Another client logged in.");
+        }
+    }
+
+    private void log(String message) {
+        try {
+            messageQueue.put(message);
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private class EventLoop implements Runnable {
+        private final Selector selector;
+        private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+        private final ByteBuffer[] gather = new ByteBuffer[MAX_GATHER];
+
+        EventLoop() throws IOException {
+            selector = Selector.open();
+        }
+
+        void execute(Runnable task) {
+            tasks.add(task);
+            selector.wakeup();
+        }
+
+        void register(SocketChannel channel) {
+            try {
+                ChannelConnection connection = new ChannelConnection(this, channel);
+                connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+                connection.handler = handlerFactory.apply(connection);
+            } catch (IOException e) {
+                log("Lost a connection...");
+            }
+        }
+
+        @Override
+        public void run() {
+            while (selector.isOpen()) {
+                try {
+                    selector.select();
+                    Runnable task;
+                    while ((task = tasks.poll()) != null) {
+                        task.run();
+                    }
+                    Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                    while (keys.hasNext()) {
+                        SelectionKey key = keys.next();
+                        keys.remove();
+                        if (!key.isValid()) {
+                            continue;
+                        }
+                        if (key.isAcceptable()) {
+                            accept((ServerSocketChannel) key.channel());
+                            continue;
+                        }
+                        ChannelConnection connection = (ChannelConnection) key.attachment();
+                        try {
+                            if (key.isReadable()) {
+                                connection.read();
+                            }
+                            if (key.isValid() && key.isWritable()) {
+                                connection.flush();
+                            }
+                        } catch (IOException | RuntimeException e) {
+                            log(e.getMessage() == null ? "Lost a connection..." : e.getMessage());
+                            connection.close();
+                        }
+                    }
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    private class ChannelConnection implements Connection {
+        private final EventLoop loop;
+        private final SocketChannel channel;
+        private final Queue<ByteBuffer> writeQueue = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean flushScheduled = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private final AtomicInteger pending = new AtomicInteger();
+        private final AtomicBoolean lagging = new AtomicBoolean();
+        private final MessageDecoder decoder = new MessageDecoder();
+        private final Object sendLock = new Object();
+        private boolean binary = false;
+        private boolean readPaused = false;
+        private ByteBuffer readBuffer = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+        private SelectionKey key;
+        private MessageHandler handler;
+
+        ChannelConnection(EventLoop loop, SocketChannel channel) {
+            this.loop = loop;
+            this.channel = channel;
+        }
+
+        @Override
+        public void send(OutboundMessage message) {
+            if (!OutboundBatch.defer(this, message)) {
+                sendAll(Collections.singletonList(message));
+            }
+        }
+
+        @Override
+        public void sendAll(List<OutboundMessage> messages) {
+            if (closed.get() || lagging.get()) {
+                return;
+            }
+            if (pending.addAndGet(messages.size()) > MAX_PENDING_MESSAGES) {
+                // Closing runs on the loop, so the sender is never called back while it walks its recipients.
+                if (lagging.compareAndSet(false, true)) {
+                    log("Disconnected a client that could not keep up.");
+                    loop.execute(this::close);
+                }
+                return;
+            }
+            synchronized (sendLock) {
+                for (OutboundMessage message : messages) {
+                    writeQueue.add(binary ? message.frame() : message.line());
+                }
+            }
+            scheduleFlush();
+        }
+
+        @Override
+        public void upgrade(String message) {
+            OutboundBatch.release(this);
+            pending.incrementAndGet();
+            synchronized (sendLock) {
+                writeQueue.add(new OutboundMessage(message).line());
+                binary = true;
+            }
+            decoder.setBinary(true);
+            scheduleFlush();
+        }
+
+        private void scheduleFlush() {
+            if (flushScheduled.compareAndSet(false, true)) {
+                loop.execute(() -> {
+                    try {
+                        flush();
+                    } catch (IOException e) {
+                        close();
+                    }
+                });
+            }
+        }
+
+        @Override
+        public void resumeReading() {
+            loop.execute(() -> {
+                if (!readPaused || !key.isValid() || handler.isBusy() || pending.get() >= PAUSE_READING_PENDING) {
+                    return;
+                }
+                readPaused = false;
+                key.interestOps(key.interestOps() | SelectionKey.OP_READ);
+                try {
+                    // Messages that were already read when reading stopped are not announced by the selector.
+                    dispatch();
+                } catch (RuntimeException e) {
+                    log(e.getMessage() == null ? "Lost a connection..." : e.getMessage());
+                    close();
+                }
+            });
+        }
+
+        /**
+         * Reads what the socket has and hands it to the handler. Only runs on the loop that owns this connection.
+         */
+        void read() throws IOException {
+            if (!readBuffer.hasRemaining()) {
+                ByteBuffer larger = ByteBuffer.allocate(readBuffer.capacity() * 2);
+                readBuffer.flip();
+                larger.put(readBuffer);
+                readBuffer = larger;
+            }
+            if (channel.read(readBuffer) == -1) {
+                close();
+                return;
+            }
+            dispatch();
+        }
+
+        /**
+         * Splits everything read so far into messages and hands each complete message to the handler. Stops
+         * reading while the handler is busy or too many messages wait for the client; the rest stays in the
+         * buffer until {@link #resumeReading()} is called.
+         */
+        private void dispatch() {
+            readBuffer.flip();
+            Message message;
+            while ((message = decoder.next(readBuffer)) != null) {
+                handler.handle(message);
+                if (closed.get()) {
+                    return;
+                }
+                if (handler.isBusy() || pending.get() >= PAUSE_READING_PENDING) {
+                    readPaused = true;
+                    key.interestOps(key.interestOps() & ~SelectionKey.OP_READ);
+                    break;
+                }
+            }
+            readBuffer.compact();
+        }
+
+        /**
+         * Writes as much of the queue as the socket accepts, up to {@value #MAX_GATHER} messages per gathering
+         * write, and waits for write readiness for the rest. Only runs on the loop that owns this connection.
+         */
+        void flush() throws IOException {
+            flushScheduled.set(false);
+            if (!key.isValid()) {
+                return;
+            }
+            ByteBuffer[] gather = loop.gather;
+            while (!writeQueue.isEmpty()) {
+                int count = 0;
+                for (ByteBuffer buffer : writeQueue) {
+                    if (count == gather.length) {
+                        break;
+                    }
+                    gather[count++] = buffer;
+                }
+                channel.write(gather, 0, count);
+                boolean written = true;
+                for (int i = 0; i < count; i++) {
+                    if (written && !gather[i].hasRemaining()) {
+                        writeQueue.poll();
+                        pending.decrementAndGet();
+                    } else {
+                        written = false;
+                    }
+                    gather[i] = null;
+                }
+                if (readPaused && pending.get() <= RESUME_READING_PENDING) {
+                    resumeReading();
+                }
+                if (!written) {
+                    key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+                    return;
+                }
+            }
+            key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+        }
+
+        @Override
+        public void close() {
+            if (closed.compareAndSet(false, true)) {
+                if (key != null) {
+                    key.cancel();
+                }
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+                writeQueue.clear();
+                if (handler != null) {
+                    handler.closed();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,483 @@
+package server;
+
+import misc.AvatarUpload;
+import misc.BinaryCodec;
+import misc.Message;
+import misc.Opcode;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.UnknownHostException;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The game server itself, without any user interface. Everything it wants to tell the operator goes into
+ * the message queue, which either the admin window or the headless launcher drains.
+ */
+public class GameServer {
+    public static final int MIN_PLAYERS = 2, MAX_PLAYERS = 8;
+    private static final int AVATAR_THREADS = 2, AVATAR_QUEUE = 16;
+    /**
+     * The number of messages of one client that may wait in its room before the server stops reading from the
+     * client, and the number they have to fall back to before it reads again.
+     */
+    private static final int MAX_QUEUED_IN_ROOM = 64, RESUME_QUEUED_IN_ROOM = 16;
+
+    private final SessionRegistry sessions = new SessionRegistry();
+    private final AvatarStore avatars = new AvatarStore();
+    private final Map<String, Room> rooms = new ConcurrentHashMap<>();
+    private final BlockingQueue<String> messageQueue;
+    private final ExecutorService roomExecutor;
+    private final ExecutorService avatarExecutor = newAvatarExecutor();
+    private final int minPlayers, maxPlayers;
+    private Long seed;
+
+    /**
+     * @param messageQueue The queue that receives the server log.
+     */
+    public GameServer(BlockingQueue<String> messageQueue) {
+        this(messageQueue, MIN_PLAYERS, MAX_PLAYERS);
+    }
+
+    /**
+     * @param messageQueue The queue that receives the server log.
+     * @param minPlayers The number of players needed to start a game.
+     * @param maxPlayers The largest number of players a game can be started with.
+     */
+    public GameServer(BlockingQueue<String> messageQueue, int minPlayers, int maxPlayers) {
+        this.messageQueue = messageQueue;
+        this.minPlayers = minPlayers;
+        this.maxPlayers = maxPlayers;
+        roomExecutor = newRoomExecutor(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param threads The number of threads, usually one per core.
+     * @return The pool every room runs its mailbox on. Its threads never keep the program alive.
+     */
+    private static ExecutorService newRoomExecutor(int threads) {
+        AtomicInteger count = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "Room Loop " + count.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @return The pool that transcodes avatars, apart from the rooms and connections so that a large upload
+     * never holds up a game. Uploads that arrive while its queue is full are turned down.
+     */
+    private static ExecutorService newAvatarExecutor() {
+        AtomicInteger count = new AtomicInteger();
+        return new ThreadPoolExecutor(1, AVATAR_THREADS, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(AVATAR_QUEUE), task -> {
+            Thread thread = new Thread(task, "Avatar Transcoder " + count.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @param seed The seed every new room shuffles with, or null to give each room a random seed.
+     */
+    public void setSeed(Long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Starts accepting connections on a new thread.
+     * @param port The port to listen on.
+     * @param mode How the connections are run.
+     * @param workers The number of selector loops, only used by {@link ServerMode#NIO}.
+     */
+    public void start(int port, ServerMode mode, int workers) {
+        new Thread(new ServerInit(port, mode, workers), "Server").start();
+    }
+
+    /**
+     * Starts the game in every room that is waiting and has enough players.
+     * @return The number of rooms that were started.
+     */
+    public int ready() {
+        int started = 0;
+        for (Room room : rooms.values()) {
+            if (room.ready(minPlayers, maxPlayers)) {
+                started++;
+            }
+        }
+        return started;
+    }
+
+    /**
+     * Starts the game in a single room.
+     * @param roomName The name of the room.
+     * @return False if there is no such room, its game has already started, or it has too few or too many users.
+     */
+    public boolean ready(String roomName) {
+        Room room = rooms.get(roomName);
+        return room != null && room.ready(minPlayers, maxPlayers);
+    }
+
+    /**
+     * Sends an announcement to every connected client.
+     * @param message The announcement.
+     */
+    public void announce(String message) {
+        broadcast("[Announcement]\t" + message + "\tM");
+    }
+
+    /**
+     * @return A copy of the names of the users that are currently online.
+     */
+    public Set<String> getUsers() {
+        return sessions.getUsernames();
+    }
+
+    /**
+     * @return The rooms that currently have at least one player.
+     */
+    public Collection<Room> getRooms() {
+        return new ArrayList<>(rooms.values());
+    }
+
+    /**
+     * @return The number of open connections, including clients that have not picked a username yet.
+     */
+    public int getConnectionCount() {
+        return sessions.size();
+    }
+
+    public int getMinPlayers() {
+        return minPlayers;
+    }
+
+    public int getMaxPlayers() {
+        return maxPlayers;
+    }
+
+
+    public class ClientThread implements MessageHandler, Runnable {
+
+        StreamConnection stream;
+        Connection client;
+        Session session;
+        String roomName = Room.DEFAULT_NAME;
+        Room room;
+        AvatarUpload upload;
+        final AtomicInteger queuedInRoom = new AtomicInteger();
+        public ClientThread(Connection client) {
+            this.client = client;
+            session = sessions.open(client);
+        }
+
+        public ClientThread(StreamConnection client) {
+            this((Connection) client);
+            stream = client;
+        }
+
+        @Override
+        public void run() {
+            Message message;
+            try {
+                while ((message = stream.read()) != null) {
+                    handle(message);
+                    stream.awaitReady(this);
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+            } catch (RuntimeException e) {
+                // A malformed message closes the connection, as it does in the selector loops.
+                try {
+                    messageQueue.put(e.getMessage() == null ? "Lost a connection..." : e.getMessage());
+                } catch (InterruptedException ex) {
+                    ex.printStackTrace();
+                }
+            } finally {
+                client.close();
+                closed();
+            }
+        }
+
+        @Override
+        public void closed() {
+            try {
+                messageQueue.put("Lost a connection...");
+            } catch (InterruptedException ex) {
+                ex.printStackTrace();
+            }
+            if (room != null) {
+                leaveRoom();
+            }
+            String username = session.getUsername();
+            if (username != null && sessions.get(username) == session) {
+                avatars.remove(username);
+            }
+            sessions.close(session);
+        }
+
+        /**
+         * Transcodes an upload on the avatar pool and keeps the result if the user is still connected by then.
+         */
+        private void setAvatar(String user, byte[] upload) {
+            try {
+                avatarExecutor.execute(() -> {
+                    try {
+                        byte[] avatar = AvatarTranscoder.transcode(upload);
+                        if (sessions.get(user) == session) {
+                            avatars.put(user, avatar);
+                            // The user may have left while the avatar was stored.
+                            if (sessions.get(user) != session) {
+                                avatars.remove(user);
+                            }
+                        }
+                    } catch (IllegalArgumentException | IOException e) {
+                        try {
+                            messageQueue.put("Invalid avatar from " + user + ": " + e.getMessage());
+                        } catch (InterruptedException ex) {
+                            ex.printStackTrace();
+                        }
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                throw new IllegalStateException("Too many avatars are being transcoded, dropped the one of " + user);
+            }
+        }
+
+        /**
+         * Tells the client to stop sending the chunks of its avatar.
+         */
+        private void refuseUpload(String user, IllegalArgumentException e) {
+            upload = null;
+            session.send(MessageEncoder.start().field(user).field(-1).opcode(Opcode.IMA).build());
+            throw new IllegalStateException("Invalid avatar from " + user + ": " + e.getMessage());
+        }
+
+        @Override
+        public boolean isBusy() {
+            return queuedInRoom.get() >= MAX_QUEUED_IN_ROOM;
+        }
+
+        /**
+         * Called by the room after each message of this client.
+         */
+        private void processed() {
+            if (queuedInRoom.decrementAndGet() == RESUME_QUEUED_IN_ROOM) {
+                client.resumeReading();
+            }
+        }
+
+        /**
+         * Leaves the room and drops it once it is empty. Both happen under the lock of its entry in the map, the
+         * same one a join holds, so nobody can join a room after it was found empty and before it is dropped.
+         */
+        private void leaveRoom() {
+            Room left = room;
+            rooms.compute(left.getName(), (name, existing) -> {
+                left.removeSession(session);
+                return existing == null || existing.isEmpty() ? null : existing;
+            });
+            room = null;
+        }
+
+        @Override
+        public void handle(Message message) {
+            // Replies sent from this thread reach each client in one write; rooms batch their own tasks.
+            OutboundBatch batch = OutboundBatch.open();
+            try {
+                if (message.getOpcode() == null) {
+                    throw new IllegalStateException("Unexpected value: " + message.getCode());
+                }
+                switch (message.getOpcode()) {
+                    //Connect
+                    case C:
+                        //Indexing Figure
+                        if (session.getUsername() == null && sessions.claim(session, message.get(0))) {
+                            // Joining happens inside the map operation, so the room cannot be dropped in between.
+                            room = rooms.compute(roomName, (name, existing) -> {
+                                Room joined = existing != null ? existing : new Room(name, messageQueue,
+                                        roomExecutor, avatars, seed != null ? seed : ThreadLocalRandom.current().nextLong());
+                                joined.addUser(session);
+                                return joined;
+                            });
+                        }
+                        break;
+                    //Disconnect
+                    case D:
+                        // Only the username of this session is freed, whatever name the client put in the message.
+                        String user = session.getUsername();
+                        if (user == null) {
+                            break;
+                        }
+                        if (room != null) {
+                            leaveRoom();
+                        }
+                        avatars.remove(user);
+                        sessions.release(session);
+                        break;
+                        //Image
+                    case IM:
+                        try {
+                            setAvatar(message.get(0), Base64.getDecoder().decode(message.get(1)));
+                        } catch (IllegalArgumentException e) {
+                            throw new IllegalStateException("Invalid avatar from " + message.get(0));
+                        }
+                        break;
+                    //Image Start, announcing an avatar that arrives in chunks.
+                    case IMS:
+                        upload = null;
+                        if (message.size() < 4) {
+                            refuseUpload(message.get(0), new IllegalArgumentException("the announcement is incomplete"));
+                        }
+                        try {
+                            upload = new AvatarUpload(message.getInt(1), message.get(3));
+                        } catch (IllegalArgumentException e) {
+                            refuseUpload(message.get(0), e);
+                        }
+                        break;
+                    //Image Chunk
+                    case IMC:
+                        if (upload == null) {
+                            throw new IllegalStateException("Avatar chunk from " + message.get(0) + " without an upload");
+                        }
+                        try {
+                            boolean complete = upload.append(Base64.getDecoder().decode(message.get(1)));
+                            session.send(MessageEncoder.start().field(message.get(0)).field(upload.getReceived())
+                                    .opcode(Opcode.IMA).build());
+                            if (complete) {
+                                byte[] bytes = upload.finish();
+                                upload = null;
+                                setAvatar(message.get(0), bytes);
+                            }
+                        } catch (IllegalArgumentException e) {
+                            refuseUpload(message.get(0), e);
+                        }
+                        break;
+                    //Get Avatar, asked for by clients that do not have the image with this hash yet.
+                    case GAV:
+                        OutboundMessage avatar = avatars.get(message.get(1));
+                        if (avatar != null) {
+                            session.send(avatar);
+                        }
+                        break;
+                    //Identification is necessary to prevent duplicate accounts.
+                    case ID:
+                        try {
+                            messageQueue.put("Testing for duplicate username...");
+                        } catch (InterruptedException e) {
+                            e.printStackTrace();
+                        }
+                        if (message.size() > 3 && !message.get(3).trim().isEmpty()) {
+                            roomName = message.get(3).trim();
+                        }
+                        // Only the asking client needs the answer, so the other clients never see its key.
+                        boolean taken = sessions.isTaken(message.get(1));
+                        // The client only switches once its name is accepted, so a taken name is answered in text.
+                        if (!taken && message.size() > 4 && message.get(4).equals(BinaryCodec.VERSION)) {
+                            client.upgrade(message.get(0) + "\tfalse\tID\t" + BinaryCodec.VERSION);
+                        } else {
+                            session.send(message.get(0) + "\t" + taken + "\tID");
+                        }
+                        break;
+                    default:
+                        if (room == null) {
+                            throw new IllegalStateException("Unexpected value before joining a room: " + message.get(2));
+                        }
+                        queuedInRoom.incrementAndGet();
+                        room.handle(session, message, this::processed);
+                }
+            } catch (IllegalStateException e) {
+                try {
+                    messageQueue.put(e.getMessage());
+                } catch (InterruptedException ex) {
+                    ex.printStackTrace();
+                }
+            } finally {
+                batch.close();
+            }
+        }
+    }
+
+    public class ServerInit implements Runnable {
+
+
+        private final int port;
+        private final ServerMode mode;
+        private final int workers;
+
+        public ServerInit(int port, ServerMode mode, int workers) {
+            this.port = port;
+            this.mode = mode;
+            this.workers = workers;
+        }
+        @Override
+        public void run() {
+            try {
+                messageQueue.put("The server IP is " + InetAddress.getLocalHost().getHostAddress() + " at port " + port + ".");
+                if (!mode.isSupported()) {
+                    messageQueue.put("Virtual threads need Java 21 or newer, using platform threads instead.");
+                }
+            } catch (InterruptedException | UnknownHostException e) {
+                e.printStackTrace();
+            }
+            if (mode == ServerMode.NIO) {
+                new ConnectionEngine(port, workers, ClientThread::new, messageQueue).run();
+                return;
+            }
+            ExecutorService executor = mode.newExecutor();
+            try (ServerSocket serverSocket = new ServerSocket(port)) {
+                while (true) {
+                    Socket clientSocket = serverSocket.accept();
+                    StreamConnection connection = new StreamConnection(clientSocket);
+                    connection.start(executor);
+                    executor.execute(new ClientThread(connection));
+                    try {
+                        messageQueue.put("Another client logged in.");
+                    } catch (InterruptedException e) {
+                        e.printStackTrace();
+                    }
+                }
+            } catch (IOException e) {
+                try {
+                    messageQueue.put("Error in making a connection.");
+                } catch (InterruptedException ex) {
+                    ex.printStackTrace();
+                }
+                e.printStackTrace();
+            } finally {
+                executor.shutdown();
+            }
+        }
+    }
+
+    private void broadcast(String str) {
+        try {
+            if (str.startsWith("[Game]\t") || str.startsWith("[Announcement]\t")) {
+                messageQueue.put("Sending Message: " + str);
+            }
+            OutboundMessage message = new OutboundMessage(str);
+            for (Session session : sessions.getSessions()) {
+                session.getConnection().send(message);
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+            try {
+                messageQueue.put("Error Sending to Everyone.");
+            } catch (InterruptedException ex) {
+                ex.printStackTrace();
+            }
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package server;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Runs the game server without JavaFX, so it can be started in a container or over SSH.
+ * <p>
+ * Usage: {@code java server.HeadlessServer --port=5000 [--mode=nio|thread|virtual] [--workers=4]
+ * [--min-players=2] [--max-players=8] [--seed=42]}
+ * <p>
+ * Once started, the server reads commands from standard input: {@code ready [room]}, {@code users},
+ * {@code announce <message>} and {@code stop}.
+ */
+public class HeadlessServer {
+
+    public static void main(String[] args) {
+        Map<String, String> options = parseOptions(args);
+        int port, workers, minPlayers, maxPlayers;
+        Long seed;
+        ServerMode mode;
+        try {
+            port = Integer.parseInt(options.getOrDefault("port", ""));
+            if (port > 65535 || port <= 0) {
+                throw new IllegalArgumentException();
+            }
+            mode = ServerMode.parse(options.get("mode"));
+            workers = Integer.parseInt(options.getOrDefault("workers", "" + ConnectionEngine.defaultWorkers()));
+            minPlayers = Integer.parseInt(options.getOrDefault("min-players", "" + GameServer.MIN_PLAYERS));
+            maxPlayers = Integer.parseInt(options.getOrDefault("max-players", "" + GameServer.MAX_PLAYERS));
+            seed = options.containsKey("seed") ? Long.valueOf(options.get("seed")) : null;
+        } catch (IllegalArgumentException e) {
+            System.err.println("Usage: java server.HeadlessServer --port=<1-65535> [--mode=nio|thread|virtual] "
+                    + "[--workers=<n>] [--min-players=<n>] [--max-players=<n>] [--seed=<n>]");
+            System.exit(1);
+            return;
+        }
+
+        BlockingQueue<String> messageQueue = new LinkedBlockingQueue<>();
+        Thread logger = new Thread(() -> {
+            try {
+                while (true) {
+                    System.out.println(messageQueue.take());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "Server Log");
+        logger.setDaemon(true);
+        logger.start();
+
+        GameServer gameServer = new GameServer(messageQueue, minPlayers, maxPlayers);
+        gameServer.setSeed(seed);
+        gameServer.start(port, mode, workers);
+        readCommands(gameServer, messageQueue);
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+        return options;
+    }
+
+    private static void readCommands(GameServer gameServer, BlockingQueue<String> messageQueue) {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(System.in));
+        String line;
+        try {
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.equals("ready")) {
+                    int started = gameServer.ready();
+                    messageQueue.put(started > 0 ? "Started the game in " + started + " room(s)."
+                            : "A room needs " + gameServer.getMinPlayers() + " to " + gameServer.getMaxPlayers() + " players.");
+                } else if (line.startsWith("ready ")) {
+                    if (!gameServer.ready(line.substring("ready ".length()).trim())) {
+                        messageQueue.put("That room does not exist, has already started or needs "
+                                + gameServer.getMinPlayers() + " to " + gameServer.getMaxPlayers() + " players.");
+                    }
+                } else if (line.equals("users")) {
+                    if (gameServer.getUsers().isEmpty()) {
+                        messageQueue.put("There are no online users.");
+                    }
+                    for (Room room : gameServer.getRooms()) {
+                        messageQueue.put(room.getName() + ": " + String.join(", ", room.getUsers()));
+                    }
+                } else if (line.startsWith("announce ")) {
+                    gameServer.announce(line.substring("announce ".length()));
+                } else if (line.equals("stop")) {
+                    gameServer.announce("Server is stopping and all users are disconnected.");
+                    System.exit(0);
+                } else if (!line.isEmpty()) {
+                    messageQueue.put("Unknown command: " + line);
+                }
+            }
+        } catch (IOException | InterruptedException e) {
+            e.printStackTrace();
+        }
+    }
+}
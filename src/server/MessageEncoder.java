@@ -0,0 +1,180 @@
+package server;
+
+import client.Card;
+import client.CardSet;
+import misc.Opcode;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Writes an outbound message field by field, straight into bytes. Names, numbers and card lists never become
+ * strings of their own, and the text of the whole message is only built if someone asks for it.
+ * <pre>
+ * broadcast(MessageEncoder.start().field(user).field(health).opcode(Opcode.MH).build());
+ * </pre>
+ * Each thread has one encoder whose buffer is reused for every message, so a message has to be built completely
+ * before the next one is started on the same thread.
+ */
+public final class MessageEncoder {
+    private static final Charset CHARSET = Charset.defaultCharset();
+    private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(CHARSET);
+    private static final ThreadLocal<MessageEncoder> ENCODER = ThreadLocal.withInitial(MessageEncoder::new);
+    private static final int INITIAL_CAPACITY = 256;
+    private ByteBuffer buffer = ByteBuffer.allocate(INITIAL_CAPACITY);
+    /**
+     * Where each field starts in the buffer, so a binary frame can be built without splitting the line.
+     */
+    private int[] starts = new int[8];
+    private int fields;
+
+    private MessageEncoder() {
+    }
+
+    /**
+     * @return The encoder of this thread, emptied.
+     */
+    public static MessageEncoder start() {
+        MessageEncoder encoder = ENCODER.get();
+        encoder.buffer.clear();
+        encoder.fields = 0;
+        return encoder;
+    }
+
+    public MessageEncoder field(String value) {
+        separate();
+        putText(value);
+        return this;
+    }
+
+    public MessageEncoder field(int value) {
+        separate();
+        ensure(11);
+        if (value < 0) {
+            if (value == Integer.MIN_VALUE) {
+                putText(Integer.toString(value));
+                return this;
+            }
+            buffer.put((byte) '-');
+            value = -value;
+        }
+        int digits = 1;
+        for (int rest = value / 10; rest > 0; rest /= 10) {
+            digits *= 10;
+        }
+        for (; digits > 0; digits /= 10) {
+            buffer.put((byte) ('0' + value / digits % 10));
+        }
+        return this;
+    }
+
+    /**
+     * Writes short card names separated by spaces, as {@link misc.ListExtension#cardListToString} does.
+     */
+    public MessageEncoder cards(List<Card> cards) {
+        separate();
+        ensure(cards.size() * 3);
+        for (int i = 0; i < cards.size(); i++) {
+            putCard(i, cards.get(i));
+        }
+        return this;
+    }
+
+    /**
+     * Writes short card names separated by spaces, ordered by id.
+     */
+    public MessageEncoder cards(CardSet cards) {
+        separate();
+        ensure(cards.size() * 3);
+        int i = 0;
+        for (long remaining = cards.getMask(); remaining != 0; remaining &= remaining - 1) {
+            putCard(i++, Card.fromId(Long.numberOfTrailingZeros(remaining)));
+        }
+        return this;
+    }
+
+    /**
+     * Writes usernames separated by colons, as {@link misc.ListExtension#stringListToString} does.
+     */
+    public MessageEncoder players(Collection<String> players) {
+        separate();
+        boolean firstPlayer = true;
+        for (String player : players) {
+            if (!firstPlayer) {
+                ensure(1);
+                buffer.put((byte) ':');
+            }
+            firstPlayer = false;
+            putText(player);
+        }
+        return this;
+    }
+
+    public MessageEncoder opcode(Opcode opcode) {
+        return field(opcode.getCode());
+    }
+
+    /**
+     * Adds an empty field.
+     */
+    public MessageEncoder empty() {
+        separate();
+        return this;
+    }
+
+    /**
+     * @return The message, which keeps its own copy of the bytes. The encoder can be started again right away.
+     */
+    public OutboundMessage build() {
+        byte[] line = new byte[buffer.position() + LINE_SEPARATOR.length];
+        System.arraycopy(buffer.array(), 0, line, 0, buffer.position());
+        System.arraycopy(LINE_SEPARATOR, 0, line, buffer.position(), LINE_SEPARATOR.length);
+        return new OutboundMessage(line, buffer.position(), Arrays.copyOf(starts, fields));
+    }
+
+    private void putText(String text) {
+        ensure(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= 0x80) {
+                // Only names outside of ASCII take the slow path.
+                byte[] bytes = text.substring(i).getBytes(CHARSET);
+                ensure(bytes.length);
+                buffer.put(bytes);
+                return;
+            }
+            buffer.put((byte) c);
+        }
+    }
+
+    private void putCard(int index, Card card) {
+        String shortName = card.getShortName();
+        if (index > 0) {
+            buffer.put((byte) ' ');
+        }
+        buffer.put((byte) shortName.charAt(0)).put((byte) shortName.charAt(1));
+    }
+
+    private void separate() {
+        if (fields > 0) {
+            ensure(1);
+            buffer.put((byte) '\t');
+        }
+        if (fields == starts.length) {
+            starts = Arrays.copyOf(starts, fields * 2);
+        }
+        starts[fields++] = buffer.position();
+    }
+
+    private void ensure(int bytes) {
+        if (buffer.remaining() < bytes) {
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytes));
+            buffer.flip();
+            larger.put(buffer);
+            buffer = larger;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package server;
+
+import misc.Message;
+
+/**
+ * Receives the messages of a single connection, one complete message at a time.
+ */
+public interface MessageHandler {
+    /**
+     * @param message A complete message, in either protocol.
+     */
+    void handle(Message message);
+
+    /**
+     * Asked by the connection after every message. While the handler is busy, the connection reads nothing
+     * more from the client, and the client is slowed down by its own socket instead of filling the server's
+     * memory. The handler calls {@link Connection#resumeReading()} once it is no longer busy.
+     * @return Whether the handler has too many messages of this connection in progress.
+     */
+    default boolean isBusy() {
+        return false;
+    }
+
+    /**
+     * Called once after the connection has been closed by either side.
+     */
+    void closed();
+}
@@ -0,0 +1,81 @@
+package server;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Holds back every message sent on the current thread until the batch is closed, then hands each connection
+ * all of its messages at once. One client action usually causes several broadcasts; with a batch around its
+ * handler they reach every socket in a single write, and no client sees half of the change.
+ * <pre>
+ * OutboundBatch batch = OutboundBatch.open();
+ * try {
+ *     room.handle(message);
+ * } finally {
+ *     batch.close();
+ * }
+ * </pre>
+ * Batches may be nested; only the outermost one sends.
+ */
+public class OutboundBatch implements AutoCloseable {
+    private static final ThreadLocal<OutboundBatch> CURRENT = new ThreadLocal<>();
+    private final Map<Connection, List<OutboundMessage>> messages = new LinkedHashMap<>();
+    private int depth = 0;
+
+    private OutboundBatch() {
+    }
+
+    /**
+     * Starts holding back the messages sent on this thread, or joins the batch that is already open.
+     * @return The batch, which must be closed on the same thread.
+     */
+    public static OutboundBatch open() {
+        OutboundBatch batch = CURRENT.get();
+        if (batch == null) {
+            batch = new OutboundBatch();
+            CURRENT.set(batch);
+        }
+        batch.depth++;
+        return batch;
+    }
+
+    /**
+     * Called by connections for every message they are asked to send.
+     * @return True if the message was added to the open batch, false if it should be sent right away.
+     */
+    static boolean defer(Connection connection, OutboundMessage message) {
+        OutboundBatch batch = CURRENT.get();
+        if (batch == null) {
+            return false;
+        }
+        batch.messages.computeIfAbsent(connection, c -> new ArrayList<>(4)).add(message);
+        return true;
+    }
+
+    /**
+     * Sends what the open batch holds for one connection right away, for when something has to be written
+     * after it, such as the switch to the binary protocol.
+     */
+    static void release(Connection connection) {
+        OutboundBatch batch = CURRENT.get();
+        if (batch != null) {
+            List<OutboundMessage> held = batch.messages.remove(connection);
+            if (held != null) {
+                connection.sendAll(held);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        if (--depth > 0) {
+            return;
+        }
+        CURRENT.remove();
+        for (Map.Entry<Connection, List<OutboundMessage>> entry : messages.entrySet()) {
+            entry.getKey().sendAll(entry.getValue());
+        }
+    }
+}
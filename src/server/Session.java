@@ -0,0 +1,50 @@
+package server;
+
+/**
+ * One client as the server knows it: the connection, a server-wide id and, once the client has joined,
+ * its username. Sessions are created and looked up through the {@link SessionRegistry}.
+ */
+public class Session {
+    private final long id;
+    private final Connection connection;
+    private volatile String username;
+
+    Session(long id, Connection connection) {
+        this.id = id;
+        this.connection = connection;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public Connection getConnection() {
+        return connection;
+    }
+
+    /**
+     * @return The username, or null if the client has not joined yet.
+     */
+    public String getUsername() {
+        return username;
+    }
+
+    void setUsername(String username) {
+        this.username = username;
+    }
+
+    /**
+     * Sends a message to this client only.
+     * @param message The tab-delimited message.
+     */
+    public void send(String message) {
+        connection.send(message);
+    }
+
+    /**
+     * Sends an encoded message to this client only.
+     */
+    public void send(OutboundMessage message) {
+        connection.send(message);
+    }
+}
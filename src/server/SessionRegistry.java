@@ -0,0 +1,108 @@
+package server;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Every open session of the server, looked up by id or by username. A username belongs to at most one
+ * session at a time.
+ * <p>
+ * The registry takes no locks: both indexes are concurrent maps, so connection threads and selector loops can
+ * join, leave and broadcast at the same time, and iterating the sessions never throws
+ * {@link java.util.ConcurrentModificationException}.
+ */
+public class SessionRegistry {
+    private final Map<Long, Session> byId = new ConcurrentHashMap<>();
+    private final Map<String, Session> byUsername = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong(1);
+
+    /**
+     * @param connection A new connection.
+     * @return The session of the connection, without a username.
+     */
+    public Session open(Connection connection) {
+        Session session = new Session(nextId.getAndIncrement(), connection);
+        byId.put(session.getId(), session);
+        return session;
+    }
+
+    /**
+     * @return Whether some session has already claimed the username.
+     */
+    public boolean isTaken(String username) {
+        return byUsername.containsKey(username);
+    }
+
+    /**
+     * Gives a username to a session, unless another session already has it.
+     * @return Whether the session now has the username.
+     */
+    public boolean claim(Session session, String username) {
+        Session owner = byUsername.putIfAbsent(username, session);
+        if (owner != null && owner != session) {
+            return false;
+        }
+        session.setUsername(username);
+        return true;
+    }
+
+    /**
+     * Frees the username of a session, for example when its player leaves but keeps the connection open. A
+     * username that has already passed to another session is left alone.
+     */
+    public void release(Session session) {
+        String username = session.getUsername();
+        if (username != null) {
+            byUsername.remove(username, session);
+            session.setUsername(null);
+        }
+    }
+
+    /**
+     * Forgets a session whose connection was closed, along with its username.
+     */
+    public void close(Session session) {
+        byId.remove(session.getId());
+        String username = session.getUsername();
+        if (username != null) {
+            byUsername.remove(username, session);
+        }
+    }
+
+    public Session get(long id) {
+        return byId.get(id);
+    }
+
+    /**
+     * @return The session with the username, or null if nobody has it.
+     */
+    public Session get(String username) {
+        return byUsername.get(username);
+    }
+
+    /**
+     * @return A live view of the open sessions. Sessions opened or closed while it is iterated may or may
+     * not be seen, but iterating never fails.
+     */
+    public Collection<Session> getSessions() {
+        return byId.values();
+    }
+
+    /**
+     * @return A copy of the usernames that are currently taken.
+     */
+    public Set<String> getUsernames() {
+        return new HashSet<>(byUsername.keySet());
+    }
+
+    /**
+     * @return The number of open sessions, including clients that have not picked a username yet.
+     */
+    public int size() {
+        return byId.size();
+    }
+}
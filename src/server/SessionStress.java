@@ -0,0 +1,172 @@
+package server;
+
+import misc.Message;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Hammers the sessions and rooms of the server from many threads at once and checks that no username is ever
+ * held twice, that no name is left behind and that nobody ends up in a room the server has already dropped.
+ * <p>
+ * Usage: {@code java server.SessionStress [--threads=8] [--rounds=20000]}
+ * <p>
+ * It prints what it checked and exits with status 1 at the first broken rule.
+ */
+public class SessionStress {
+    private static final String[] NAMES = {"ann", "bob", "cat", "dan", "eve", "fay", "gus", "hal"};
+    private static final String[] ROOMS = {"Lobby", "Attic", "Cellar"};
+    private static final Connection NO_CONNECTION = new Connection() {
+        @Override
+        public void send(OutboundMessage message) {
+        }
+
+        @Override
+        public void sendAll(List<OutboundMessage> messages) {
+        }
+
+        @Override
+        public void upgrade(String message) {
+        }
+
+        @Override
+        public void resumeReading() {
+        }
+
+        @Override
+        public void close() {
+        }
+    };
+
+    public static void main(String[] args) throws InterruptedException {
+        int threads = 8, rounds = 20000;
+        for (String arg : args) {
+            if (arg.startsWith("--threads=")) {
+                threads = Integer.parseInt(arg.substring("--threads=".length()));
+            } else if (arg.startsWith("--rounds=")) {
+                rounds = Integer.parseInt(arg.substring("--rounds=".length()));
+            }
+        }
+        claimAndRelease(threads, rounds);
+        joinAndLeave(threads, rounds);
+        System.exit(0);
+    }
+
+    /**
+     * Every thread claims names from a small pool and frees them again, either by releasing the name or by
+     * closing the session. A name that two sessions hold at once is a failure.
+     */
+    private static void claimAndRelease(int threads, int rounds) throws InterruptedException {
+        SessionRegistry registry = new SessionRegistry();
+        AtomicReferenceArray<Session> holders = new AtomicReferenceArray<>(NAMES.length);
+        long start = System.nanoTime();
+        run(threads, () -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            Session session = registry.open(NO_CONNECTION);
+            for (int i = 0; i < rounds; i++) {
+                int name = random.nextInt(NAMES.length);
+                if (!registry.claim(session, NAMES[name])) {
+                    continue;
+                }
+                if (!holders.compareAndSet(name, null, session)) {
+                    throw new IllegalStateException(NAMES[name] + " is held by two sessions");
+                }
+                if (registry.get(NAMES[name]) != session) {
+                    throw new IllegalStateException(NAMES[name] + " was claimed but belongs to another session");
+                }
+                holders.set(name, null);
+                if (random.nextBoolean()) {
+                    registry.release(session);
+                } else {
+                    registry.close(session);
+                    session = registry.open(NO_CONNECTION);
+                }
+            }
+            registry.close(session);
+        });
+        check(registry.getUsernames().isEmpty(), "names were left behind: " + registry.getUsernames());
+        check(registry.size() == 0, registry.size() + " sessions were left behind");
+        System.out.println("Claimed and released names on " + threads + " threads in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms.");
+    }
+
+    /**
+     * Every thread connects clients to a few rooms and takes them out again, either with a disconnect message
+     * or by closing the connection. A client whose room is no longer the one the server has under its name has
+     * joined a room that was dropped.
+     */
+    private static void joinAndLeave(int threads, int rounds) throws InterruptedException {
+        BlockingQueue<String> log = new LinkedBlockingQueue<>();
+        Thread drain = new Thread(() -> {
+            try {
+                while (true) {
+                    log.take();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "Server Log");
+        drain.setDaemon(true);
+        drain.start();
+
+        GameServer gameServer = new GameServer(log);
+        long start = System.nanoTime();
+        run(threads, () -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < rounds; i++) {
+                GameServer.ClientThread client = gameServer.new ClientThread(NO_CONNECTION);
+                String name = NAMES[random.nextInt(NAMES.length)];
+                client.handle(Message.parse("0\t" + name + "\tID\t" + ROOMS[random.nextInt(ROOMS.length)]));
+                client.handle(Message.parse(name + "\t\tC"));
+                if (client.room != null && !gameServer.getRooms().contains(client.room)) {
+                    throw new IllegalStateException(name + " joined " + client.room.getName()
+                            + " after it was dropped");
+                }
+                if (random.nextBoolean()) {
+                    client.handle(Message.parse(name + "\t\tD"));
+                }
+                client.closed();
+            }
+        });
+        check(gameServer.getRooms().isEmpty(), "rooms were left behind: " + gameServer.getRooms().size());
+        check(gameServer.getUsers().isEmpty(), "names were left behind: " + gameServer.getUsers());
+        System.out.println("Joined and left rooms on " + threads + " threads in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms.");
+    }
+
+    /**
+     * Runs the task on every thread at once and fails if any of them fails.
+     */
+    private static void run(int threads, Runnable task) throws InterruptedException {
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread[] workers = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Thread(() -> {
+                try {
+                    task.run();
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            }, "Stress " + i);
+            workers[i].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        if (failure.get() != null) {
+            failure.get().printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    private static void check(boolean condition, String failure) {
+        if (!condition) {
+            System.err.println("Failed: " + failure);
+            System.exit(1);
+        }
+    }
+}
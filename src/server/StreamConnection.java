@@ -0,0 +1,198 @@
+package server;
+
+import misc.Message;
+import misc.MessageReader;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A connection backed by a blocking socket, used when every client has its own thread.
+ * Messages are queued and written by a second thread of the same kind, so a client that reads slowly only
+ * delays itself. Locks are {@link ReentrantLock}s rather than {@code synchronized}, so a virtual thread
+ * blocked in a write releases its carrier thread.
+ */
+public class StreamConnection implements Connection {
+    private static final ByteBuffer[] CLOSED = new ByteBuffer[0];
+    private final Socket socket;
+    private final MessageReader reader;
+    private final OutputStream out;
+    /**
+     * Batches of messages that are written together. The queue itself is not bounded; {@link #pending} counts
+     * the messages in it, so a batch of many messages counts as many against {@link #MAX_PENDING_MESSAGES}.
+     */
+    private final BlockingQueue<ByteBuffer[]> writeQueue = new LinkedBlockingQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition readable = lock.newCondition();
+    private boolean binary = false;
+
+    /**
+     * Messages sent before {@link #start} wait in the outbound queue.
+     * @param socket The socket of the client.
+     * @throws IOException If the streams of the socket cannot be opened.
+     */
+    public StreamConnection(Socket socket) throws IOException {
+        this.socket = socket;
+        reader = new MessageReader(socket.getInputStream());
+        out = new BufferedOutputStream(socket.getOutputStream());
+    }
+
+    /**
+     * Starts writing the outbound queue. Call this once, after the connection is constructed.
+     * @param writers Runs the thread that drains the outbound queue of this connection.
+     */
+    public void start(Executor writers) {
+        writers.execute(this::drain);
+    }
+
+    /**
+     * Blocks until the client has sent a whole message. Only the thread of this connection may call this.
+     * @return The message, or null if the client has closed the connection.
+     * @throws IOException If the socket cannot be read.
+     */
+    public Message read() throws IOException {
+        return reader.read();
+    }
+
+    /**
+     * Blocks while the handler is busy or {@value #PAUSE_READING_PENDING} messages wait for the client, so a
+     * client that sends faster than the server keeps up waits in its own socket. Only the thread of this
+     * connection may call this.
+     * @param handler The handler of the messages that were read.
+     * @throws InterruptedIOException If the thread is interrupted while it waits.
+     */
+    public void awaitReady(MessageHandler handler) throws InterruptedIOException {
+        lock.lock();
+        try {
+            while ((handler.isBusy() || pending.get() >= PAUSE_READING_PENDING) && !closed.get()) {
+                readable.await();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void resumeReading() {
+        lock.lock();
+        try {
+            readable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void send(OutboundMessage message) {
+        if (!OutboundBatch.defer(this, message)) {
+            sendAll(Collections.singletonList(message));
+        }
+    }
+
+    @Override
+    public void sendAll(List<OutboundMessage> messages) {
+        if (closed.get()) {
+            return;
+        }
+        if (pending.addAndGet(messages.size()) > MAX_PENDING_MESSAGES) {
+            // The client is too slow, whichever thread notices it.
+            close();
+            return;
+        }
+        lock.lock();
+        try {
+            ByteBuffer[] buffers = new ByteBuffer[messages.size()];
+            for (int i = 0; i < buffers.length; i++) {
+                buffers[i] = binary ? messages.get(i).frame() : messages.get(i).line();
+            }
+            // Senders are often room threads shared by many rooms, so they never wait for a slow client.
+            writeQueue.add(buffers);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void upgrade(String message) {
+        OutboundBatch.release(this);
+        boolean queued = false;
+        lock.lock();
+        try {
+            // The client waits for this reply before it switches, so it must never be dropped silently.
+            if (pending.incrementAndGet() <= MAX_PENDING_MESSAGES) {
+                writeQueue.add(new ByteBuffer[] {new OutboundMessage(message).line()});
+                queued = true;
+            }
+            binary = true;
+            reader.setBinary(true);
+        } finally {
+            lock.unlock();
+        }
+        if (!queued) {
+            close();
+        }
+    }
+
+    /**
+     * Writes queued messages until the connection is closed, flushing whenever the queue runs empty.
+     */
+    private void drain() {
+        WritableByteChannel channel = Channels.newChannel(out);
+        try {
+            ByteBuffer[] buffers;
+            while ((buffers = writeQueue.take()) != CLOSED) {
+                for (ByteBuffer buffer : buffers) {
+                    while (buffer.hasRemaining()) {
+                        channel.write(buffer);
+                    }
+                }
+                int left = pending.addAndGet(-buffers.length);
+                if (left <= RESUME_READING_PENDING && left + buffers.length > RESUME_READING_PENDING) {
+                    resumeReading();
+                }
+                if (writeQueue.isEmpty()) {
+                    out.flush();
+                }
+            }
+        } catch (IOException e) {
+            close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed.compareAndSet(false, true)) {
+            do {
+                writeQueue.clear();
+            } while (!writeQueue.offer(CLOSED));
+            try {
+                socket.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            resumeReading();
+        }
+    }
+}
@@ -1,42 +1,54 @@
 package server;
 
 import client.Card;
-import misc.ListExtension;
+import misc.Opcode;
 
 import java.util.List;
 
+/**
+ * Builds the messages that change the player interfaces of the clients. They are encoded straight into bytes
+ * by a {@link MessageEncoder}.
+ * <p>
+ * These messages go to the whole room, and those with cards carry whole hands. Every client keeps the hand of
+ * every player and builds its BSF, RD and RVS messages from them, so hands cannot be kept secret until the server
+ * decides those outcomes itself. Only the deals, G, DC and DCs, reach their player alone.
+ */
 public class UserInterfaceHelper {
 
-    public static String init(String user, List<Card> cards, int health, int maxHealth, int index, String imgString) {
-        return user + "\t" + ListExtension.cardListToString(cards)  + "\tADD\t" + health + "\t" + maxHealth + "\t" + index + "\t" + imgString;
+    /**
+     * Shows a player to the room, with their whole hand.
+     */
+    public static OutboundMessage init(String user, List<Card> cards, int health, int maxHealth, int index, String avatarHash) {
+        return MessageEncoder.start().field(user).cards(cards).opcode(Opcode.ADD).field(health).field(maxHealth)
+                .field(index).field(avatarHash).build();
     }
 
-    public static String modifyBSF(String user, List<Card> cards, List<Card> defenderCards, int health, List<String> turnQueue) {
-        return user + "\t" + ListExtension.cardListToString(cards) + "\tMF\t" + ListExtension.cardListToString(defenderCards) + "\t" + health +
-                "\t" + ListExtension.stringListToString(turnQueue);
+    public static OutboundMessage modifyBSF(String user, List<Card> cards, List<Card> defenderCards, int health, List<String> turnQueue) {
+        return MessageEncoder.start().field(user).cards(cards).opcode(Opcode.MF).cards(defenderCards).field(health)
+                .players(turnQueue).build();
     }
 
-    public static String modifyBSS(String user, List<Card> cards, int health) {
-        return user + "\t" + ListExtension.cardListToString(cards) + "\tMS\t" + health;
+    public static OutboundMessage modifyBSS(String user, List<Card> cards, int health) {
+        return MessageEncoder.start().field(user).cards(cards).opcode(Opcode.MS).field(health).build();
     }
 
-    public static String modify(String user, List<Card> cards, int health) {
-        return user + "\t" + ListExtension.cardListToString(cards) + "\tMOD\t" + health;
+    public static OutboundMessage modify(String user, List<Card> cards, int health) {
+        return MessageEncoder.start().field(user).cards(cards).opcode(Opcode.MOD).field(health).build();
     }
 
-    public static String modifyHealth(String user, int health) {
-        return user + "\t" + health + "\tMH";
+    public static OutboundMessage modifyHealth(String user, int health) {
+        return MessageEncoder.start().field(user).field(health).opcode(Opcode.MH).build();
     }
 
-    public static String removeCard(String user, Card card) {
-        return user + "\t" + card.getShortName() + "\tRC";
+    public static OutboundMessage removeCard(String user, Card card) {
+        return MessageEncoder.start().field(user).field(card.getShortName()).opcode(Opcode.RC).build();
     }
 
-    public static String removeCards(String user, List<Card> cards) {
-        return user + "\t" + ListExtension.cardListToString(cards) + "\tRCs";
+    public static OutboundMessage removeCards(String user, List<Card> cards) {
+        return MessageEncoder.start().field(user).cards(cards).opcode(Opcode.RCs).build();
     }
 
-    public static String clearCards(String user) {
-        return user + "\t\tCC";
+    public static OutboundMessage clearCards(String user) {
+        return MessageEncoder.start().field(user).empty().opcode(Opcode.CC).build();
     }
 }